@@ -0,0 +1,92 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaehyun.restapispringboot.RestApiSpringbootApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * H2 위에서 애플리케이션 전체를 띄우고 MockMvc 로 POST /api/events 처리량을 측정한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EventApiBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private MockMvc mockMvc;
+  private byte[] validEvent;
+  private byte[] invalidEvent;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    context = new SpringApplicationBuilder(RestApiSpringbootApplication.class)
+            .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+            .run();
+    mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+
+    ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+    EventDto eventDto = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+    validEvent = objectMapper.writeValueAsBytes(eventDto);
+    invalidEvent = objectMapper.writeValueAsBytes(eventDto.toBuilder().basePrice(100000).build());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int createEvent() throws Exception {
+    return mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(validEvent))
+            .andReturn().getResponse().getStatus();
+  }
+
+  @Benchmark
+  public int createEvent_BadRequest() throws Exception {
+    return mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(invalidEvent))
+            .andReturn().getResponse().getStatus();
+  }
+}
@@ -0,0 +1,177 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.jaehyun.restapispringboot.common.ErrorsSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.validation.Validation;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * EventController.createEvent 를 단계별로 나눠서 측정한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventCreatePipelineBenchmark {
+
+  private ObjectMapper objectMapper;
+  private ObjectMapper halObjectMapper;
+  private SpringValidatorAdapter validator;
+  private EventValidator eventValidator;
+  private EventMapper eventMapper;
+  private EventLinks eventLinks;
+  private EventResourceAssembler eventResourceAssembler;
+  private MockHttpServletRequest request;
+
+  private byte[] eventDtoJson;
+  private EventDto eventDto;
+  private Event event;
+  private List<Event> events;
+  private Errors errors;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .featuresToEnable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .modulesToInstall(new SimpleModule().addSerializer(Errors.class, new ErrorsSerializer()))
+            .build();
+    halObjectMapper = objectMapper.copy().registerModule(new Jackson2HalModule());
+    halObjectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+            new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY));
+    validator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+    eventValidator = new EventValidator();
+    eventMapper = new EventMapperImpl();
+    eventLinks = new EventLinks();
+    eventResourceAssembler = new EventResourceAssembler(eventLinks);
+
+    eventDto = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+    eventDtoJson = objectMapper.writeValueAsBytes(eventDto);
+
+    event = eventMapper.toEvent(eventDto);
+    event.setId(10);
+    event.update();
+    events = IntStream.range(0, 20).mapToObj(id -> {
+      Event item = eventMapper.toEvent(eventDto);
+      item.setId(id);
+      return item;
+    }).collect(Collectors.toList());
+
+    EventDto invalid = eventDto.toBuilder()
+            .name("")
+            .basePrice(100000)
+            .endEventDateTime(LocalDateTime.of(2018, 11, 1, 14, 21))
+            .build();
+    errors = new BeanPropertyBindingResult(invalid, "eventDto");
+    validator.validate(invalid, errors);
+    eventValidator.validate(invalid, errors);
+
+    // linkTo 는 현재 요청을 기준으로 URI 를 만든다
+    request = new MockHttpServletRequest();
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Benchmark
+  public EventDto deserializeEventDto() throws Exception {
+    return objectMapper.readValue(eventDtoJson, EventDto.class);
+  }
+
+  @Benchmark
+  public Errors beanValidation() {
+    Errors result = new BeanPropertyBindingResult(eventDto, "eventDto");
+    validator.validate(eventDto, result);
+    return result;
+  }
+
+  @Benchmark
+  public Errors eventValidator() {
+    Errors result = new BeanPropertyBindingResult(eventDto, "eventDto");
+    eventValidator.validate(eventDto, result);
+    return result;
+  }
+
+  @Benchmark
+  public Event mapEventDto() {
+    return eventMapper.toEvent(eventDto);
+  }
+
+  @Benchmark
+  public Event updateEvent() {
+    event.update();
+    return event;
+  }
+
+  @Benchmark
+  public byte[] renderEventResource() throws Exception {
+    // EventLinks 는 base URI 를 요청마다 한 번 계산하므로 매 호출을 새 요청처럼 만든다
+    request.clearAttributes();
+    EventResource eventResource = eventResourceAssembler.toModel(event);
+    eventResource.add(eventLinks.queryEvents());
+    eventResource.add(eventLinks.updateEvent(event.getId()));
+    eventResource.add(EventLinks.PROFILE_CREATE);
+    return halObjectMapper.writeValueAsBytes(eventResource);
+  }
+
+  @Benchmark
+  public byte[] renderEventList() throws Exception {
+    request.clearAttributes();
+    CollectionModel<EventResource> resources = eventResourceAssembler.toCollectionModel(events);
+    resources.add(EventLinks.PROFILE_LIST);
+    return halObjectMapper.writeValueAsBytes(resources);
+  }
+
+  @Benchmark
+  public byte[] serializeErrors() throws Exception {
+    return objectMapper.writeValueAsBytes(errors);
+  }
+}
@@ -0,0 +1,151 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.jaehyun.restapispringboot.common.BinaryFormatConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.HalConfiguration;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.DefaultLinkRelationProvider;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 이벤트 하나와 100개짜리 페이지를 HAL JSON, CBOR, Smile 로 직렬화하는 시간을 잰다. gzip=true 면 압축까지 포함한다.
+ * 응답 크기는 측정 시작 전에 format / gzip 별로 출력한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventFormatBenchmark {
+
+  @Param({"json", "cbor", "smile"})
+  private String format;
+
+  @Param({"false", "true"})
+  private boolean gzip;
+
+  private ObjectMapper objectMapper;
+  private EventResource eventResource;
+  private PagedModel<EventResource> page;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    HandlerInstantiator instantiator = new Jackson2HalModule.HalHandlerInstantiator(
+            new DefaultLinkRelationProvider(), CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY,
+            new HalConfiguration());
+    switch (format) {
+      case "cbor":
+        objectMapper = BinaryFormatConfig.halObjectMapper(Jackson2ObjectMapperBuilder.cbor().build(), instantiator);
+        break;
+      case "smile":
+        objectMapper = BinaryFormatConfig.halObjectMapper(Jackson2ObjectMapperBuilder.smile().build(), instantiator);
+        break;
+      default:
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new Jackson2HalModule())
+                .handlerInstantiator(instantiator)
+                .build();
+    }
+
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    EventLinks eventLinks = new EventLinks();
+    EventResourceAssembler assembler = new EventResourceAssembler(eventLinks);
+
+    eventResource = assembler.toModel(generateEvent(10));
+    eventResource.add(EventLinks.PROFILE_GET);
+
+    List<EventResource> content = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      content.add(assembler.toModel(generateEvent(i)));
+    }
+    page = new PagedModel<>(content, new PagedModel.PageMetadata(100, 1, 1000));
+    String events = eventLinks.eventsHref();
+    page.add(new Link(events + "?page=0&size=100").withRel(IanaLinkRelations.FIRST));
+    page.add(new Link(events + "?page=0&size=100").withRel(IanaLinkRelations.PREV));
+    page.add(new Link(events + "?page=1&size=100").withSelfRel());
+    page.add(new Link(events + "?page=2&size=100").withRel(IanaLinkRelations.NEXT));
+    page.add(new Link(events + "?page=9&size=100").withRel(IanaLinkRelations.LAST));
+    page.add(EventLinks.PROFILE_LIST);
+
+    System.out.printf("%n[size] format=%s gzip=%s event=%d bytes page100=%d bytes%n",
+            format, gzip, serializeEvent().length, serializePage().length);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Benchmark
+  public byte[] serializeEvent() throws IOException {
+    return write(eventResource);
+  }
+
+  @Benchmark
+  public byte[] serializePage() throws IOException {
+    return write(page);
+  }
+
+  private byte[] write(Object value) throws IOException {
+    if (!gzip) {
+      return objectMapper.writeValueAsBytes(value);
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      objectMapper.writeValue(out, value);
+    }
+    return bytes.toByteArray();
+  }
+
+  private Event generateEvent(int index) {
+    Event event = Event.builder()
+            .id(index)
+            .name("Spring REST API " + index)
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역 D2 스타텁 팩토리")
+            .eventStatus(EventStatus.PUBLISHED)
+            .build();
+    event.update();
+    return event;
+  }
+}
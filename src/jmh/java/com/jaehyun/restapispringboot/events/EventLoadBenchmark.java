@@ -0,0 +1,117 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaehyun.restapispringboot.RestApiSpringbootApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실제 Tomcat 위에서 platform thread 풀과 virtual thread 모드의 처리량과 지연 시간 분포를 비교한다.
+ * MockMvc 는 Tomcat executor 를 거치지 않으므로 HTTP 로 호출한다.
+ *
+ * virtual 모드는 JDK 21 이상이 필요하다: mvn -Pjmh -DskipTests verify -Djmh.include=EventLoadBenchmark -Djmh.java=.../bin/java
+ * 기본은 H2 이고, PostgreSQL 에 대해 돌리려면 SPRING_DATASOURCE_URL / USERNAME / PASSWORD 환경 변수를 지정한다.
+ *
+ * 한 IP 에서 400 스레드로 보내므로 rate limit 을 끄고, 2xx 가 아닌 응답이 오면 실행을 실패시켜서
+ * 거절 응답의 처리량을 재지 않게 한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(400)
+@Fork(1)
+public class EventLoadBenchmark {
+
+  @Param({"platform", "virtual"})
+  public String threads;
+
+  private ConfigurableApplicationContext context;
+  private HttpClient client;
+  private HttpRequest createRequest;
+  private HttpRequest queryRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    SpringApplicationBuilder builder = new SpringApplicationBuilder(RestApiSpringbootApplication.class)
+            .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN",
+                    "events.rate-limit.enabled=false");
+    if ("virtual".equals(threads)) {
+      builder.profiles("virtual");
+    }
+    context = builder.run();
+    int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+    URI events = URI.create("http://localhost:" + port + "/api/events");
+
+    EventDto eventDto = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+    byte[] body = context.getBean(ObjectMapper.class).writeValueAsBytes(eventDto);
+
+    client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    createRequest = HttpRequest.newBuilder(events)
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/hal+json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+    queryRequest = HttpRequest.newBuilder(URI.create(events + "?page=0&size=20&sort=id,DESC"))
+            .header("Accept", "application/hal+json")
+            .GET()
+            .build();
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public int createEvent() throws Exception {
+    return send(createRequest);
+  }
+
+  @Benchmark
+  public int queryEvents() throws Exception {
+    return send(queryRequest);
+  }
+
+  private int send(HttpRequest request) throws Exception {
+    int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    if (status < 200 || status >= 300) {
+      throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + status);
+    }
+    return status;
+  }
+}
@@ -0,0 +1,145 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.jaehyun.restapispringboot.common.ErrorsSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 잘못된 이벤트 생성 요청 하나를 거절하는 데 드는 비용을 초당 거절 수로 잰다.
+ * fullLegacy 는 예전 ErrorsSerializer(요소마다 lambda 와 try/catch), full 은 지금의 ErrorsSerializer,
+ * failFast 는 구조 검사 후 미리 만들어둔 problem+json 본문을 쓰는 경로다. JSON 역직렬화는 세 경로가 같으므로 뺐다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventRejectionBenchmark {
+
+  // empty: bean validation 에서 6개 오류, wrongPrices: bean validation 통과 후 EventValidator 에서 거절
+  @Param({"empty", "wrongPrices"})
+  private String payload;
+
+  private SpringValidatorAdapter validator;
+  private EventValidator eventValidator;
+  private ObjectMapper objectMapper;
+  private ObjectMapper legacyObjectMapper;
+  private EventDto eventDto;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    validator = new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+    eventValidator = new EventValidator();
+    objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new SimpleModule().addSerializer(Errors.class, new ErrorsSerializer()))
+            .build();
+    legacyObjectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .modulesToInstall(new SimpleModule().addSerializer(Errors.class, new LegacyErrorsSerializer()))
+            .build();
+
+    if ("empty".equals(payload)) {
+      eventDto = EventDto.builder().build();
+    } else {
+      eventDto = EventDto.builder()
+              .name("Spring")
+              .description("REST API Development with Spring Boot")
+              .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+              .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+              .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+              .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+              .basePrice(100000)
+              .maxPrice(200)
+              .limitOfEnrollment(100)
+              .location("강남역")
+              .build();
+    }
+  }
+
+  @Benchmark
+  public byte[] fullLegacy() throws Exception {
+    return legacyObjectMapper.writeValueAsBytes(validateFully());
+  }
+
+  @Benchmark
+  public byte[] full() throws Exception {
+    return objectMapper.writeValueAsBytes(validateFully());
+  }
+
+  @Benchmark
+  public byte[] failFast() {
+    return eventValidator.firstRejection(eventDto).toResponse().getBody();
+  }
+
+  private Errors validateFully() {
+    Errors errors = new BeanPropertyBindingResult(eventDto, "eventDto");
+    validator.validate(eventDto, errors);
+    if (!errors.hasErrors()) {
+      eventValidator.validate(eventDto, errors);
+    }
+    return errors;
+  }
+
+  // 비교용으로 남겨둔 예전 ErrorsSerializer
+  static class LegacyErrorsSerializer extends JsonSerializer<Errors> {
+    @Override
+    public void serialize(Errors errors, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+      jsonGenerator.writeStartArray();
+      errors.getFieldErrors().forEach(e -> {
+        try {
+          jsonGenerator.writeStartObject();
+          jsonGenerator.writeStringField("field", e.getField());
+          jsonGenerator.writeStringField("objectName", e.getObjectName());
+          jsonGenerator.writeStringField("code", e.getCode());
+          jsonGenerator.writeStringField("defaultMessage", e.getDefaultMessage());
+          Object rejectedValue = e.getRejectedValue();
+          if (rejectedValue != null) {
+            jsonGenerator.writeStringField("rejectedValue", rejectedValue.toString());
+          }
+          jsonGenerator.writeEndObject();
+        } catch (IOException ex) {
+          ex.printStackTrace();
+        }
+      });
+      errors.getGlobalErrors().forEach(e -> {
+        try {
+          jsonGenerator.writeStartObject();
+          jsonGenerator.writeStringField("objectName", e.getObjectName());
+          jsonGenerator.writeStringField("code", e.getCode());
+          jsonGenerator.writeStringField("defaultMessage", e.getDefaultMessage());
+          jsonGenerator.writeEndObject();
+        } catch (IOException ex) {
+          ex.printStackTrace();
+        }
+      });
+      jsonGenerator.writeEndArray();
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.jaehyun.restapispringboot.startup;
+
+import com.jaehyun.restapispringboot.StartupProbe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 새 JVM 을 띄워서 첫 POST /api/events 가 201 을 받을 때까지의 시간(time-to-first-POST)을 잰다.
+ * 매 iteration 마다 프로세스를 새로 띄우므로 JIT warmup 과 상관없는 cold start 시간이다.
+ *
+ * fast-start-cds 는 target/appcds 의 아카이브가 필요하다: mvn -Pappcds,jmh -DskipTests verify -Djmh.include=Startup
+ * 아카이브가 있으면 세 경우 모두 같은 classpath(target/appcds)로 띄운다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+
+  private static final Path APPCDS = Paths.get("target", "appcds");
+
+  @Param({"default", "fast-start", "fast-start-cds"})
+  private String mode;
+
+  private String classpath;
+  private List<String> jvmOptions;
+  private String profiles;
+
+  @Setup
+  public void setUp() {
+    Path archive = APPCDS.resolve("app.jsa");
+    boolean appcds = Files.exists(archive);
+    classpath = appcds
+            ? APPCDS.resolve("app") + File.separator + "*" + File.pathSeparator + APPCDS.resolve("lib") + File.separator + "*"
+            : System.getProperty("java.class.path");
+
+    if ("fast-start-cds".equals(mode)) {
+      if (!appcds) {
+        throw new IllegalStateException(archive + " not found. Build it with -Pappcds first");
+      }
+      jvmOptions = List.of("-XX:SharedArchiveFile=" + archive);
+    } else {
+      jvmOptions = List.of();
+    }
+    profiles = "default".equals(mode) ? "default" : "fast-start";
+  }
+
+  @Benchmark
+  public long timeToFirstPost() throws Exception {
+    return StartupProbe.timeToFirstPost(classpath, jvmOptions, profiles).toMillis();
+  }
+}
@@ -1,20 +1,20 @@
 package com.jaehyun.restapispringboot;
 
-import org.modelmapper.ModelMapper;
+import com.jaehyun.restapispringboot.events.EventValidationProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Bean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableCaching
+@EnableScheduling
+@EnableConfigurationProperties(EventValidationProperties.class)
 public class RestApiSpringbootApplication {
 
 	public static void main(String[] args) {
 		SpringApplication.run(RestApiSpringbootApplication.class, args);
 	}
 
-  @Bean
-  public ModelMapper modelMapper() {
-    return new ModelMapper();
-  }
-
 }
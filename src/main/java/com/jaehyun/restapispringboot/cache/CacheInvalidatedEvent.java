@@ -0,0 +1,20 @@
+package com.jaehyun.restapispringboot.cache;
+
+import lombok.Getter;
+
+/**
+ * 다른 노드에서 엔티티가 바뀌었다는 알림. 2차 캐시는 이미 비운 뒤에 발행되므로
+ * 리스너는 자신이 따로 갖고 있는 캐시만 비우면 된다.
+ */
+@Getter
+public class CacheInvalidatedEvent {
+
+  private final String entityName;
+  // null 이면 해당 엔티티 전체
+  private final Long entityId;
+
+  public CacheInvalidatedEvent(String entityName, Long entityId) {
+    this.entityName = entityName;
+    this.entityId = entityId;
+  }
+}
@@ -0,0 +1,101 @@
+package com.jaehyun.restapispringboot.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.persistence.EntityManagerFactory;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate 2차 캐시를 Caffeine JCache 로 만든다. region 크기와 TTL 은 events.hibernate-cache.regions 로 설정한다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.cache.use_second_level_cache", havingValue = "true")
+@EnableConfigurationProperties(HibernateCacheProperties.class)
+public class HibernateCacheConfiguration {
+
+  public static final String HIT_RATIO = "hibernate.cache.region.hit.ratio";
+
+  @Bean
+  public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+    // 테스트처럼 한 JVM 에 컨텍스트가 여러 개 떠도 region 을 공유하지 않도록 URI 를 따로 쓴다
+    CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+            .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+    properties.getRegions().forEach((name, region) -> {
+      CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+      // Hibernate 가 이미 엔티티를 분해해서 넣으므로 직렬화 복사는 필요 없다
+      configuration.setStoreByValue(false);
+      configuration.setMaximumSize(OptionalLong.of(region.getMaximumSize()));
+      if (region.getExpireAfterWrite() != null) {
+        configuration.setExpireAfterWrite(OptionalLong.of(region.getExpireAfterWrite().toNanos()));
+      }
+      cacheManager.createCache(name, configuration);
+    });
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+    return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+
+  /**
+   * region 별 hit / (hit + miss). 아직 조회가 없거나 만들어지지 않은 region 은 NaN 이다.
+   * 요청 수 자체는 hibernate.second.level.cache.requests 로 이미 노출된다.
+   */
+  @Bean
+  public MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory,
+                                            HibernateCacheProperties properties) {
+    return registry -> {
+      Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+      for (String region : properties.getRegions().keySet()) {
+        Gauge.builder(HIT_RATIO, statistics, stats -> hitRatio(stats, region))
+                .tag("region", region)
+                .description("Hibernate second-level cache hit ratio")
+                .register(registry);
+      }
+    };
+  }
+
+  @Bean(initMethod = "createTable", destroyMethod = "flush")
+  @Lazy(false)
+  @ConditionalOnProperty(name = "events.hibernate-cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+  public JdbcCacheInvalidator cacheInvalidator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                                               ApplicationEventPublisher eventPublisher,
+                                               HibernateCacheProperties properties) {
+    return new JdbcCacheInvalidator(jdbcTemplate, entityManagerFactory, eventPublisher, properties);
+  }
+
+  private static double hitRatio(Statistics statistics, String region) {
+    CacheRegionStatistics regionStatistics;
+    try {
+      regionStatistics = statistics.getCacheRegionStatistics(region);
+    } catch (IllegalArgumentException e) {
+      // query region 은 처음 쓸 때 만들어진다
+      return Double.NaN;
+    }
+    if (regionStatistics == null) {
+      return Double.NaN;
+    }
+    long requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+    return requests == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / requests;
+  }
+}
@@ -0,0 +1,32 @@
+package com.jaehyun.restapispringboot.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties("events.hibernate-cache")
+public class HibernateCacheProperties {
+
+  // region 이름별 설정. 여기 없는 region 은 Hibernate 가 크기 제한 없이 만들고 경고를 남긴다
+  private Map<String, Region> regions = new LinkedHashMap<>();
+  private Invalidation invalidation = new Invalidation();
+
+  @Data
+  public static class Region {
+    private long maximumSize = 10_000;
+    // 비어 있으면 만료되지 않는다
+    private Duration expireAfterWrite;
+  }
+
+  @Data
+  public static class Invalidation {
+    // 다른 노드에 캐시 무효화를 전달한다. 노드가 하나뿐이면 꺼도 된다
+    private boolean enabled = true;
+    // cache_invalidation 테이블에 무효화 기록을 남겨두는 기간
+    private Duration retention = Duration.ofHours(1);
+  }
+}
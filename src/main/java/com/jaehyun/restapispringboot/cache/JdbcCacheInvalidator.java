@@ -0,0 +1,180 @@
+package com.jaehyun.restapispringboot.cache;
+
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 여러 노드가 같은 데이터베이스를 쓸 때 2차 캐시를 맞춘다. 이벤트를 바꾼 노드가 cache_invalidation 테이블에
+ * 기록을 남기면 다른 노드들이 polling 으로 읽어서 해당 엔티티와 query cache 를 비운다.
+ * 노드 사이의 지연은 polling 주기 정도이고, 그 사이에 읽은 값은 region TTL 이 지나면 어차피 버려진다.
+ *
+ * 먼저 시작한 트랜잭션이 늦게 커밋되면 created_at 이 이미 읽은 기록보다 앞설 수 있으므로
+ * 마지막으로 읽은 시각보다 LATE_COMMIT_MARGIN 만큼 앞에서부터 다시 읽고, 이미 처리한 id 는 건너뛴다.
+ *
+ * 쓰기 요청이 기록을 insert 하느라 느려지거나 실패하지 않도록 {@link #publish} 는 outbox 에 쌓기만 하고,
+ * poll 할 때 모아서 한 번에 insert 한다. 그래서 다른 노드에 전달되기까지 polling 주기의 두 배 정도 걸린다.
+ */
+public class JdbcCacheInvalidator {
+
+  private static final Logger log = LoggerFactory.getLogger(JdbcCacheInvalidator.class);
+
+  private static final Duration LATE_COMMIT_MARGIN = Duration.ofSeconds(10);
+  private static final String CREATE_TABLE = "create table if not exists cache_invalidation ("
+          + "id bigint generated by default as identity primary key, "
+          + "node_id varchar(36) not null, "
+          + "entity_name varchar(255) not null, "
+          + "entity_id bigint, "
+          + "created_at timestamp default current_timestamp not null)";
+  private static final String CREATE_INDEX =
+          "create index if not exists idx_cache_invalidation_created_at on cache_invalidation (created_at)";
+  private static final String INSERT =
+          "insert into cache_invalidation (node_id, entity_name, entity_id) values (?, ?, ?)";
+
+  private final String nodeId = UUID.randomUUID().toString();
+  private final JdbcTemplate jdbcTemplate;
+  private final EntityManagerFactory entityManagerFactory;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Duration retention;
+  private final Map<Long, Instant> applied = new HashMap<>();
+  private final Queue<Object[]> outbox = new ConcurrentLinkedQueue<>();
+  private Instant cursor;
+
+  public JdbcCacheInvalidator(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory,
+                              ApplicationEventPublisher eventPublisher, HibernateCacheProperties properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.entityManagerFactory = entityManagerFactory;
+    this.eventPublisher = eventPublisher;
+    this.retention = properties.getInvalidation().getRetention();
+  }
+
+  public void createTable() {
+    jdbcTemplate.execute(CREATE_TABLE);
+    jdbcTemplate.execute(CREATE_INDEX);
+    // 시작하기 전의 기록은 이 노드의 캐시와 상관없다
+    cursor = jdbcTemplate.queryForObject("select current_timestamp", Timestamp.class).toInstant();
+  }
+
+  public String getNodeId() {
+    return nodeId;
+  }
+
+  public void publish(Class<?> entityClass, Collection<? extends Number> ids) {
+    for (Number id : ids) {
+      outbox.add(new Object[]{nodeId, entityClass.getName(), id.longValue()});
+    }
+  }
+
+  public void publishAll(Class<?> entityClass) {
+    outbox.add(new Object[]{nodeId, entityClass.getName(), null});
+  }
+
+  /**
+   * outbox 에 쌓인 무효화 기록을 한 번의 batch insert 로 남긴다. 실패하면 다음 flush 에서 다시 시도한다.
+   */
+  public synchronized void flush() {
+    List<Object[]> rows = new ArrayList<>();
+    Object[] row;
+    while ((row = outbox.poll()) != null) {
+      rows.add(row);
+    }
+    if (rows.isEmpty()) {
+      return;
+    }
+    try {
+      jdbcTemplate.batchUpdate(INSERT, rows);
+    } catch (DataAccessException e) {
+      log.warn("Failed to publish {} cache invalidations, will retry", rows.size(), e);
+      outbox.addAll(rows);
+    }
+  }
+
+  /**
+   * @return 이번에 새로 적용한 무효화 기록 수
+   */
+  @Scheduled(fixedDelayString = "${events.hibernate-cache.invalidation.poll-interval:1000}")
+  public synchronized int poll() {
+    flush();
+    List<Row> rows = jdbcTemplate.query("select id, entity_name, entity_id, created_at from cache_invalidation "
+                    + "where created_at > ? and node_id <> ? order by id",
+            (rs, rowNum) -> new Row(rs.getLong("id"), rs.getString("entity_name"),
+                    rs.getObject("entity_id", Long.class), rs.getTimestamp("created_at").toInstant()),
+            Timestamp.from(cursor.minus(LATE_COMMIT_MARGIN)), nodeId);
+
+    Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+    int count = 0;
+    for (Row row : rows) {
+      if (row.createdAt.isAfter(cursor)) {
+        cursor = row.createdAt;
+      }
+      if (applied.putIfAbsent(row.id, row.createdAt) != null) {
+        continue;
+      }
+      if (row.entityId == null) {
+        cache.evictEntityData(row.entityName);
+      } else {
+        cache.evictEntityData(row.entityName, identifier(row.entityName, row.entityId));
+      }
+      eventPublisher.publishEvent(new CacheInvalidatedEvent(row.entityName, row.entityId));
+      count++;
+    }
+    if (count > 0) {
+      // 어떤 조회 결과가 바뀌었는지 알 수 없으므로 query cache 는 통째로 비운다
+      cache.evictQueryRegions();
+    }
+
+    Instant horizon = cursor.minus(LATE_COMMIT_MARGIN);
+    applied.values().removeIf(createdAt -> createdAt.isBefore(horizon));
+    return count;
+  }
+
+  @Scheduled(fixedDelayString = "${events.hibernate-cache.invalidation.purge-interval:600000}")
+  public void purgeExpired() {
+    jdbcTemplate.update("delete from cache_invalidation where created_at < ?",
+            Timestamp.from(Instant.now().minus(retention)));
+  }
+
+  // Event 의 id 는 Integer 라서 bigint 로 읽은 값을 엔티티의 id 타입으로 바꿔야 캐시 키가 맞는다
+  private Serializable identifier(String entityName, Long id) {
+    Class<?> idType = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getMetamodel()
+            .entityPersister(entityName).getIdentifierType().getReturnedClass();
+    if (Integer.class.equals(idType)) {
+      return id.intValue();
+    }
+    return id;
+  }
+
+  private static class Row {
+    private final long id;
+    private final String entityName;
+    private final Long entityId;
+    private final Instant createdAt;
+
+    Row(long id, String entityName, Long entityId, Instant createdAt) {
+      this.id = id;
+      this.entityName = entityName;
+      this.entityId = entityId;
+      this.createdAt = createdAt;
+    }
+  }
+}
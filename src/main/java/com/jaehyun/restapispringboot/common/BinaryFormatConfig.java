@@ -0,0 +1,62 @@
+package com.jaehyun.restapispringboot.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.HandlerInstantiator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.HalConfiguration;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.LinkRelationProvider;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Accept 헤더로 HAL JSON 대신 CBOR 나 Smile 을 요청할 수 있게 한다. 구조(_links, _embedded, page)는 HAL JSON 과 같고
+ * 날짜는 ISO 문자열 대신 [년, 월, 일, 시, 분] 배열로 써서 더 작다.
+ */
+@Configuration
+public class BinaryFormatConfig implements WebMvcConfigurer {
+
+  public static final String CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+  public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+  private final ObjectMapper cborObjectMapper;
+  private final ObjectMapper smileObjectMapper;
+
+  public BinaryFormatConfig(Jackson2ObjectMapperBuilder builder, LinkRelationProvider linkRelationProvider,
+                            ObjectProvider<CurieProvider> curieProvider, MessageResolver messageResolver,
+                            ObjectProvider<HalConfiguration> halConfiguration) {
+    HandlerInstantiator instantiator = new Jackson2HalModule.HalHandlerInstantiator(linkRelationProvider,
+            curieProvider.getIfAvailable(() -> CurieProvider.NONE), messageResolver,
+            halConfiguration.getIfAvailable(HalConfiguration::new));
+    this.cborObjectMapper = halObjectMapper(builder.factory(new CBORFactory()).build(), instantiator);
+    this.smileObjectMapper = halObjectMapper(builder.factory(new SmileFactory()).build(), instantiator);
+  }
+
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    // dataformat 이 classpath 에 있으면 Spring MVC 가 HAL 을 모르는 기본 converter 를 먼저 등록하므로 바꿔 끼운다
+    converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+            || converter instanceof MappingJackson2SmileHttpMessageConverter);
+    converters.add(new MappingJackson2CborHttpMessageConverter(cborObjectMapper));
+    converters.add(new MappingJackson2SmileHttpMessageConverter(smileObjectMapper));
+  }
+
+  public static ObjectMapper halObjectMapper(ObjectMapper objectMapper, HandlerInstantiator instantiator) {
+    objectMapper.registerModule(new Jackson2HalModule());
+    objectMapper.setHandlerInstantiator(instantiator);
+    objectMapper.enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    return objectMapper;
+  }
+}
@@ -0,0 +1,84 @@
+package com.jaehyun.restapispringboot.common;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+
+/**
+ * 엔티티의 version 으로 만든 strong ETag 와 If-Match / If-None-Match 헤더 비교.
+ * 같은 version 이라도 CBOR, Smile 본문은 JSON 과 바이트가 다르므로 strong ETag 에 표현(subtype)을 붙인다.
+ */
+public final class ETags {
+
+  private static final String WEAK_PREFIX = "W/";
+
+  private ETags() {
+  }
+
+  public static String of(Long version) {
+    return "\"" + (version == null ? 0 : version) + "\"";
+  }
+
+  /**
+   * JSON 표현은 {@link #of(Long)} 와 같고, 그 외에는 "3-cbor" 처럼 version 뒤에 subtype 을 붙인다.
+   */
+  public static String of(Long version, MediaType representation) {
+    if (representation == null || isJson(representation)) {
+      return of(version);
+    }
+    return "\"" + (version == null ? 0 : version) + "-" + representation.getSubtype() + "\"";
+  }
+
+  private static boolean isJson(MediaType mediaType) {
+    return mediaType.getSubtype().equals("json") || mediaType.getSubtype().endsWith("+json");
+  }
+
+  /**
+   * If-None-Match 는 weak 비교(RFC 7232 2.3.2)를 한다.
+   */
+  public static boolean matchesIfNoneMatch(String header, String eTag) {
+    return matches(header, eTag, true);
+  }
+
+  /**
+   * If-Match 는 strong 비교를 하므로 weak ETag 는 절대 일치하지 않는다.
+   */
+  public static boolean matchesIfMatch(String header, String eTag) {
+    return matches(header, eTag, false);
+  }
+
+  /**
+   * 같은 version 의 어느 표현에서 받은 ETag 로도 수정할 수 있도록 현재 version 의 모든 표현과 비교한다.
+   */
+  public static boolean matchesIfMatch(String header, Long version, Collection<MediaType> representations) {
+    for (MediaType representation : representations) {
+      if (matchesIfMatch(header, of(version, representation))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean matches(String header, String eTag, boolean weak) {
+    if (!StringUtils.hasText(header)) {
+      return false;
+    }
+    for (String candidate : StringUtils.commaDelimitedListToStringArray(header)) {
+      candidate = candidate.trim();
+      if (candidate.equals("*")) {
+        return true;
+      }
+      if (candidate.startsWith(WEAK_PREFIX)) {
+        if (!weak) {
+          continue;
+        }
+        candidate = candidate.substring(WEAK_PREFIX.length());
+      }
+      if (candidate.equals(eTag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -5,42 +5,42 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import org.springframework.boot.jackson.JsonComponent;
 import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
 
 import java.io.IOException;
+import java.util.List;
+
 @JsonComponent
 public class ErrorsSerializer extends JsonSerializer<Errors> {
   @Override
   public void serialize(Errors errors, JsonGenerator jsonGenerator, SerializerProvider serializerProvider) throws IOException {
+    // 오류를 쓰다가 난 IOException 은 응답 쓰기 실패이므로 그대로 올려보낸다
     jsonGenerator.writeStartArray();
-    errors.getFieldErrors().forEach(e-> {
-      try {
-        jsonGenerator.writeStartObject();
-        jsonGenerator.writeStringField("field", e.getField());
-        jsonGenerator.writeStringField("objectName", e.getObjectName());
-        jsonGenerator.writeStringField("code", e.getCode());
-        jsonGenerator.writeStringField("defaultMessage", e.getDefaultMessage());
-        Object rejectedValue = e.getRejectedValue();
-        if (rejectedValue != null) {
-          jsonGenerator.writeStringField("rejectedValue", rejectedValue.toString());
-        }
-        jsonGenerator.writeEndObject();
-      } catch (IOException ex) {
-        ex.printStackTrace();
-      }
-    });
-
-    errors.getGlobalErrors().forEach(e -> {
-      try {
-        jsonGenerator.writeStartObject();
-        jsonGenerator.writeStringField("objectName", e.getObjectName());
-        jsonGenerator.writeStringField("code", e.getCode());
-        jsonGenerator.writeStringField("defaultMessage", e.getDefaultMessage());
-        jsonGenerator.writeEndObject();
-      } catch (IOException ex) {
-        ex.printStackTrace();
+    List<FieldError> fieldErrors = errors.getFieldErrors();
+    for (int i = 0, size = fieldErrors.size(); i < size; i++) {
+      FieldError e = fieldErrors.get(i);
+      jsonGenerator.writeStartObject();
+      jsonGenerator.writeStringField("field", e.getField());
+      jsonGenerator.writeStringField("objectName", e.getObjectName());
+      jsonGenerator.writeStringField("code", e.getCode());
+      jsonGenerator.writeStringField("defaultMessage", e.getDefaultMessage());
+      Object rejectedValue = e.getRejectedValue();
+      if (rejectedValue != null) {
+        jsonGenerator.writeStringField("rejectedValue", rejectedValue.toString());
       }
+      jsonGenerator.writeEndObject();
+    }
 
-    });
-  jsonGenerator.writeEndArray();
+    List<ObjectError> globalErrors = errors.getGlobalErrors();
+    for (int i = 0, size = globalErrors.size(); i < size; i++) {
+      ObjectError e = globalErrors.get(i);
+      jsonGenerator.writeStartObject();
+      jsonGenerator.writeStringField("objectName", e.getObjectName());
+      jsonGenerator.writeStringField("code", e.getCode());
+      jsonGenerator.writeStringField("defaultMessage", e.getDefaultMessage());
+      jsonGenerator.writeEndObject();
+    }
+    jsonGenerator.writeEndArray();
   }
 }
@@ -0,0 +1,35 @@
+package com.jaehyun.restapispringboot.common;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * spring.threads.virtual.enabled=true 이면 Tomcat 워커 풀 대신 요청마다 virtual thread 를 만든다.
+ * 빌드는 Java 11 로 하므로 Executors.newVirtualThreadPerTaskExecutor 는 reflection 으로 찾는다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    return protocolHandler -> protocolHandler.setExecutor(executor);
+  }
+
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException("spring.threads.virtual.enabled=true requires Java 21 or later but running on "
+              + Runtime.version(), e);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("Cannot create virtual thread executor", e);
+    }
+  }
+}
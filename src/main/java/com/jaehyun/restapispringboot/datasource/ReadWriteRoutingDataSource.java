@@ -0,0 +1,90 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link ReplicaRouting} 이 읽기라고 하면 replica 에서, 아니면 primary 에서 커넥션을 가져온다.
+ * 쓸 수 있는 replica 가 없거나 replica 가 커넥션을 주지 못하면 primary 로 넘어간다.
+ *
+ * readOnly 여부는 트랜잭션이 시작된 뒤에야 정해지므로 LazyConnectionDataSourceProxy 로
+ * 첫 쿼리를 실행할 때까지 커넥션을 고르지 않는다.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+  private final DataSource primary;
+
+  public ReadWriteRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+    super(new Router(primary, replicas));
+    this.primary = primary;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (primary instanceof Closeable) {
+      ((Closeable) primary).close();
+    }
+  }
+
+  private enum Route { PRIMARY, REPLICA }
+
+  private static class Router extends AbstractRoutingDataSource {
+    private final ReplicaPool replicas;
+
+    Router(DataSource primary, ReplicaPool replicas) {
+      this.replicas = replicas;
+      Map<Object, Object> targets = new HashMap<>();
+      targets.put(Route.PRIMARY, primary);
+      targets.put(Route.REPLICA, new ReplicaDataSource(primary, replicas));
+      setTargetDataSources(targets);
+      setDefaultTargetDataSource(primary);
+      afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+      if (!ReplicaRouting.isReadOnly()) {
+        return Route.PRIMARY;
+      }
+      if (!replicas.isAvailable()) {
+        replicas.recordFallback(ReplicaPool.Fallback.UNAVAILABLE);
+        return Route.PRIMARY;
+      }
+      return Route.REPLICA;
+    }
+  }
+
+  private static class ReplicaDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final ReplicaPool replicas;
+
+    ReplicaDataSource(DataSource primary, ReplicaPool replicas) {
+      this.primary = primary;
+      this.replicas = replicas;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      try {
+        return replicas.getConnection();
+      } catch (SQLException e) {
+        replicas.recordFallback(ReplicaPool.Fallback.ERROR);
+        return primary.getConnection();
+      }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return getConnection();
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jaehyun.restapispringboot.ratelimit.ClientKeyResolver;
+import com.jaehyun.restapispringboot.ratelimit.RateLimitFilter;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * /api/events 의 GET 요청은 replica 로, 그 밖의 요청은 primary 로 보낸다.
+ *
+ * 쓰기에 성공한 클라이언트는 stickiness 동안 조회도 primary 로 보내서 방금 쓴 내용이 아직 복제되지 않은
+ * replica 에서 읽지 않게 한다. 클라이언트는 RateLimitFilter 와 같이 {@link ClientKeyResolver} 로 구분하고,
+ * 노드마다 따로 기억하므로 로드 밸런서가 클라이언트를 다른 노드로 보내면 그 노드에서는 적용되지 않는다.
+ */
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+  private final Cache<String, Boolean> recentWriters;
+  private final ReplicaPool replicas;
+  private final ClientKeyResolver clientKeyResolver;
+
+  public ReadYourWritesInterceptor(ReplicaPool replicas, ClientKeyResolver clientKeyResolver, Duration stickiness,
+                                   long maximumClients) {
+    this.replicas = replicas;
+    this.clientKeyResolver = clientKeyResolver;
+    this.recentWriters = Caffeine.newBuilder()
+            .expireAfterWrite(stickiness)
+            .maximumSize(maximumClients)
+            .build();
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!RateLimitFilter.isRead(request.getMethod())) {
+      ReplicaRouting.requirePrimary();
+    } else if (recentWriters.getIfPresent(clientKeyResolver.resolve(request)) != null) {
+      replicas.recordFallback(ReplicaPool.Fallback.STICKY);
+      ReplicaRouting.requirePrimary();
+    } else {
+      ReplicaRouting.preferReplica();
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    ReplicaRouting.clear();
+    if (!RateLimitFilter.isRead(request.getMethod()) && ex == null && response.getStatus() < 400) {
+      recentWriters.put(clientKeyResolver.resolve(request), Boolean.TRUE);
+    }
+  }
+
+  // 스트리밍 응답은 다른 스레드에서 쓰므로 요청 스레드의 힌트는 여기서 지운다
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+    ReplicaRouting.clear();
+  }
+}
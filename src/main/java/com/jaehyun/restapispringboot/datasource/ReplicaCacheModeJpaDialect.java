@@ -0,0 +1,31 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.transaction.TransactionDefinition;
+
+import javax.persistence.CacheStoreMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import java.sql.SQLException;
+
+/**
+ * replica 에서 읽는 트랜잭션은 2차 캐시와 query cache 를 읽기만 하고 채우지 않는다.
+ * replica 는 방금 커밋된 쓰기를 아직 모를 수 있으므로 거기서 읽은 값을 캐시에 넣으면 primary 에서 읽는 요청도 그 값을 받는다.
+ */
+public class ReplicaCacheModeJpaDialect extends HibernateJpaDialect {
+
+  @Override
+  public Object beginTransaction(EntityManager entityManager, TransactionDefinition definition)
+          throws PersistenceException, SQLException {
+    Object transactionData = super.beginTransaction(entityManager, definition);
+    if (ReplicaRouting.isReadOnly(definition.isReadOnly())) {
+      // find() 는 세션의 CacheMode 대신 이 속성을 보므로 둘 다 바꾼다
+      entityManager.setProperty(AvailableSettings.JPA_SHARED_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+      entityManager.unwrap(Session.class).setCacheMode(CacheMode.GET);
+    }
+    return transactionData;
+  }
+}
@@ -0,0 +1,166 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * read replica 들의 커넥션 풀. 건강한 replica 를 돌아가며 골라 커넥션을 준다.
+ *
+ * checkHealth 가 주기적으로 각 replica 에 연결해보고 lagQuery 가 있으면 복제 지연도 확인한다.
+ * 연결이 안 되거나 지연이 maxLag 를 넘으면 다음 확인에서 회복될 때까지 고르지 않는다.
+ * 커넥션을 가져오다 실패한 replica 도 바로 뺀다.
+ */
+public class ReplicaPool implements Closeable {
+
+  /**
+   * 읽기 요청인데 primary 에서 커넥션을 가져온 이유
+   */
+  public enum Fallback {
+    // 방금 쓴 클라이언트의 조회
+    STICKY,
+    // 건강한 replica 가 없음
+    UNAVAILABLE,
+    // replica 가 커넥션을 주지 못함
+    ERROR
+  }
+
+  private final List<Replica> replicas = new ArrayList<>();
+  private final String lagQuery;
+  private final double maxLagSeconds;
+  private final AtomicInteger next = new AtomicInteger();
+  private volatile int healthyCount;
+  private final Map<Fallback, LongAdder> fallbacks = new EnumMap<>(Fallback.class);
+
+  public ReplicaPool(List<DataSource> dataSources, String lagQuery, Duration maxLag) {
+    for (DataSource dataSource : dataSources) {
+      replicas.add(new Replica(dataSource));
+    }
+    this.lagQuery = lagQuery;
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    for (Fallback fallback : Fallback.values()) {
+      fallbacks.put(fallback, new LongAdder());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${events.datasource.health-check-interval:1000}")
+  public synchronized void checkHealth() {
+    for (Replica replica : replicas) {
+      replica.healthy = isHealthy(replica);
+    }
+    updateHealthyCount();
+  }
+
+  private boolean isHealthy(Replica replica) {
+    try (Connection connection = replica.dataSource.getConnection()) {
+      if (!StringUtils.hasText(lagQuery)) {
+        return connection.isValid(1);
+      }
+      try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(lagQuery)) {
+        // 복제할 게 없어서 지연을 모르면 null 이 나오므로 0 으로 본다
+        double lagSeconds = resultSet.next() ? resultSet.getDouble(1) : 0;
+        return lagSeconds <= maxLagSeconds;
+      }
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  public boolean isAvailable() {
+    return healthyCount > 0;
+  }
+
+  public int getHealthyCount() {
+    return healthyCount;
+  }
+
+  public List<DataSource> getDataSources() {
+    List<DataSource> dataSources = new ArrayList<>(replicas.size());
+    for (Replica replica : replicas) {
+      dataSources.add(replica.dataSource);
+    }
+    return dataSources;
+  }
+
+  public void recordFallback(Fallback fallback) {
+    fallbacks.get(fallback).increment();
+  }
+
+  public long getFallbackCount(Fallback fallback) {
+    return fallbacks.get(fallback).sum();
+  }
+
+  /**
+   * @throws SQLException 건강한 replica 가 없거나 모두 커넥션을 주지 못했을 때
+   */
+  public Connection getConnection() throws SQLException {
+    int size = replicas.size();
+    int start = Math.floorMod(next.getAndIncrement(), size);
+    SQLException failure = null;
+    for (int i = 0; i < size; i++) {
+      Replica replica = replicas.get((start + i) % size);
+      if (!replica.healthy) {
+        continue;
+      }
+      try {
+        return replica.dataSource.getConnection();
+      } catch (SQLException e) {
+        markDown(replica);
+        if (failure == null) {
+          failure = e;
+        } else {
+          failure.addSuppressed(e);
+        }
+      }
+    }
+    throw failure != null ? failure : new SQLException("No healthy read replica");
+  }
+
+  private void markDown(Replica replica) {
+    replica.healthy = false;
+    updateHealthyCount();
+  }
+
+  private void updateHealthyCount() {
+    int count = 0;
+    for (Replica replica : replicas) {
+      if (replica.healthy) {
+        count++;
+      }
+    }
+    healthyCount = count;
+  }
+
+  @Override
+  public void close() throws IOException {
+    for (Replica replica : replicas) {
+      if (replica.dataSource instanceof Closeable) {
+        ((Closeable) replica.dataSource).close();
+      }
+    }
+  }
+
+  private static class Replica {
+    private final DataSource dataSource;
+    // 첫 확인 전에는 primary 를 쓴다
+    private volatile boolean healthy;
+
+    Replica(DataSource dataSource) {
+      this.dataSource = dataSource;
+    }
+  }
+}
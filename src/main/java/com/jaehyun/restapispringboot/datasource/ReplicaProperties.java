@@ -0,0 +1,35 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties("events.datasource")
+public class ReplicaProperties {
+
+  // 비어 있으면 라우팅하지 않고 spring.datasource 하나만 쓴다
+  private List<Replica> replicas = new ArrayList<>();
+  // 쓰기 요청을 보낸 클라이언트의 조회는 이 시간 동안 primary 로 보낸다. 0 이면 끈다
+  private Duration stickiness = Duration.ofSeconds(5);
+  // stickiness 를 위해 기억하는 최대 클라이언트 수
+  private long maximumClients = 100_000;
+  // replica 에서 실행해서 복제 지연을 초 단위로 돌려주는 쿼리. 없으면 연결만 확인한다
+  private String lagQuery;
+  // 복제 지연이 이보다 크면 그 replica 로 조회를 보내지 않는다
+  private Duration maxLag = Duration.ofSeconds(5);
+
+  @Data
+  public static class Replica {
+    private String url;
+    // 없으면 spring.datasource 의 값을 쓴다
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+    // 죽은 replica 를 오래 기다리지 않고 primary 로 넘어가도록 짧게 둔다
+    private Duration connectionTimeout = Duration.ofSeconds(1);
+  }
+}
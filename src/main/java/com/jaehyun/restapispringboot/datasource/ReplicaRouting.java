@@ -0,0 +1,49 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 현재 스레드의 커넥션을 replica 에서 가져와도 되는지 정한다.
+ *
+ * 트랜잭션 안에서는 {@code @Transactional(readOnly = true)} 인지로 정하고, 트랜잭션 밖에서는 요청에 붙은 힌트를 따른다.
+ * 쓰기 요청이거나 방금 쓴 클라이언트의 조회라서 primary 를 요구하면 readOnly 트랜잭션이라도 primary 를 쓴다.
+ */
+public final class ReplicaRouting {
+
+  private enum Hint { REPLICA, PRIMARY }
+
+  private static final ThreadLocal<Hint> HINT = new ThreadLocal<>();
+
+  private ReplicaRouting() {
+  }
+
+  public static void preferReplica() {
+    HINT.set(Hint.REPLICA);
+  }
+
+  public static void requirePrimary() {
+    HINT.set(Hint.PRIMARY);
+  }
+
+  public static void clear() {
+    HINT.remove();
+  }
+
+  public static boolean isReadOnly() {
+    Hint hint = HINT.get();
+    if (hint == Hint.PRIMARY) {
+      return false;
+    }
+    if (TransactionSynchronizationManager.isActualTransactionActive()) {
+      return TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+    return hint == Hint.REPLICA;
+  }
+
+  /**
+   * 트랜잭션을 시작하는 중이라 아직 TransactionSynchronizationManager 에 readOnly 가 없을 때 쓴다.
+   */
+  public static boolean isReadOnly(boolean readOnlyTransaction) {
+    return readOnlyTransaction && HINT.get() != Hint.PRIMARY;
+  }
+}
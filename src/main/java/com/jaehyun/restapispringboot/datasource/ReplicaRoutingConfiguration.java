@@ -0,0 +1,134 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import com.jaehyun.restapispringboot.ratelimit.ClientKeyResolver;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.orm.jpa.JpaVendorAdapter;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * events.datasource.replicas 가 있으면 spring.datasource 를 primary 로, replica 들을 읽기 전용으로 쓰는
+ * 라우팅 DataSource 를 만든다. 직접 DataSource 를 만들므로 Spring Boot 의 DataSource 자동 설정은 물러난다.
+ */
+@Configuration
+@ConditionalOnProperty("events.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaRoutingConfiguration implements WebMvcConfigurer {
+
+  public static final String HEALTHY_REPLICAS = "events.datasource.replicas.healthy";
+  public static final String FALLBACKS = "events.datasource.replica.fallbacks";
+
+  private final ReplicaProperties properties;
+  private final ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor;
+
+  public ReplicaRoutingConfiguration(ReplicaProperties properties,
+                                     ObjectProvider<ReadYourWritesInterceptor> readYourWritesInterceptor) {
+    this.properties = properties;
+    this.readYourWritesInterceptor = readYourWritesInterceptor;
+  }
+
+  @Bean(initMethod = "checkHealth", destroyMethod = "close")
+  public ReplicaPool replicaPool(DataSourceProperties dataSourceProperties) {
+    List<DataSource> dataSources = new ArrayList<>();
+    for (int i = 0; i < properties.getReplicas().size(); i++) {
+      ReplicaProperties.Replica replica = properties.getReplicas().get(i);
+      HikariDataSource dataSource = new HikariDataSource();
+      dataSource.setPoolName("replica-" + i);
+      dataSource.setJdbcUrl(replica.getUrl());
+      dataSource.setUsername(replica.getUsername() != null ? replica.getUsername() : dataSourceProperties.determineUsername());
+      dataSource.setPassword(replica.getPassword() != null ? replica.getPassword() : dataSourceProperties.determinePassword());
+      dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+      dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+      dataSource.setReadOnly(true);
+      // replica 가 죽어 있어도 애플리케이션은 primary 만으로 뜬다
+      dataSource.setInitializationFailTimeout(-1);
+      dataSources.add(dataSource);
+    }
+    return new ReplicaPool(dataSources, properties.getLagQuery(), properties.getMaxLag());
+  }
+
+  // primary 풀을 따로 빈으로 만들면 DataSource 초기화가 아직 만들고 있는 이 빈을 찾아서 순환하므로 안에서 만든다
+  @Bean
+  @Primary
+  public ReadWriteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ReplicaPool replicaPool,
+                                               Environment environment) {
+    HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    if (StringUtils.hasText(dataSourceProperties.getName())) {
+      primary.setPoolName(dataSourceProperties.getName());
+    }
+    Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+    return new ReadWriteRoutingDataSource(primary, replicaPool);
+  }
+
+  // Spring Boot 의 기본 JpaVendorAdapter 와 같게 만들되 replica 에서 읽는 트랜잭션은 Hibernate 캐시를 채우지 않게 한다
+  @Bean
+  public JpaVendorAdapter jpaVendorAdapter(JpaProperties jpaProperties) {
+    HibernateJpaDialect jpaDialect = new ReplicaCacheModeJpaDialect();
+    HibernateJpaVendorAdapter adapter = new HibernateJpaVendorAdapter() {
+      @Override
+      public HibernateJpaDialect getJpaDialect() {
+        return jpaDialect;
+      }
+    };
+    adapter.setShowSql(jpaProperties.isShowSql());
+    if (jpaProperties.getDatabase() != null) {
+      adapter.setDatabase(jpaProperties.getDatabase());
+    }
+    if (jpaProperties.getDatabasePlatform() != null) {
+      adapter.setDatabasePlatform(jpaProperties.getDatabasePlatform());
+    }
+    adapter.setGenerateDdl(jpaProperties.isGenerateDdl());
+    return adapter;
+  }
+
+  // MeterRegistry 를 만들 때 EntityManagerFactory 가 필요한 binder 가 있으므로 DataSource 를 만들면서 registry 를 받으면 순환한다
+  @Bean
+  public MeterBinder replicaMetrics(ReplicaPool replicaPool) {
+    return registry -> {
+      Gauge.builder(HEALTHY_REPLICAS, replicaPool, ReplicaPool::getHealthyCount).register(registry);
+      for (ReplicaPool.Fallback fallback : ReplicaPool.Fallback.values()) {
+        FunctionCounter.builder(FALLBACKS, replicaPool, pool -> pool.getFallbackCount(fallback))
+                .tag("reason", fallback.name().toLowerCase())
+                .register(registry);
+      }
+      // replica 풀은 빈이 아니라서 Spring Boot 가 hikaricp.connections 메트릭을 붙이지 않는다
+      for (DataSource dataSource : replicaPool.getDataSources()) {
+        ((HikariDataSource) dataSource).setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+      }
+    };
+  }
+
+  @Bean
+  public ReadYourWritesInterceptor readYourWritesInterceptor(ReplicaPool replicaPool,
+                                                             ClientKeyResolver clientKeyResolver) {
+    return new ReadYourWritesInterceptor(replicaPool, clientKeyResolver, properties.getStickiness(),
+            properties.getMaximumClients());
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(readYourWritesInterceptor.getObject()).addPathPatterns("/api/events/**");
+  }
+}
@@ -1,6 +1,10 @@
 package com.jaehyun.restapispringboot.events;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.hateoas.RepresentationModel;
 
 import javax.persistence.*;
@@ -8,10 +12,30 @@ import java.time.LocalDateTime;
 @Builder @AllArgsConstructor @NoArgsConstructor
 @Getter @Setter @EqualsAndHashCode(of="id")
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Event.CACHE_REGION)
+@DynamicUpdate // UPDATE 에 바뀐 컬럼과 version 만 쓴다
+@EntityListeners(EventSearchListener.class)
+@Table(indexes = {
+        @Index(name = "idx_event_status", columnList = "eventStatus, id"),
+        @Index(name = "idx_event_base_price", columnList = "basePrice"),
+        @Index(name = "idx_event_begin_enrollment", columnList = "beginEnrollmentDateTime"),
+        @Index(name = "idx_event_close_enrollment", columnList = "closeEnrollmentDateTime"),
+        @Index(name = "idx_event_begin_event", columnList = "beginEventDateTime"),
+        @Index(name = "idx_event_end_event", columnList = "endEventDateTime"),
+        @Index(name = "idx_event_status_begin_enrollment", columnList = "eventStatus, beginEnrollmentDateTime"),
+        @Index(name = "idx_event_status_close_enrollment", columnList = "eventStatus, closeEnrollmentDateTime"),
+        @Index(name = "idx_event_status_begin_event", columnList = "eventStatus, beginEventDateTime"),
+        @Index(name = "idx_event_status_end_event", columnList = "eventStatus, endEventDateTime")
+})
 public class Event extends RepresentationModel<Event> {
 
+  public static final String CACHE_REGION = "event";
+  public static final String QUERY_CACHE_REGION = "event-query";
+
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "event_seq")
+  @SequenceGenerator(name = "event_seq", sequenceName = "event_seq", allocationSize = 50)
   private Integer id;
   private String name;
   private String description;
@@ -22,11 +46,14 @@ public class Event extends RepresentationModel<Event> {
   private String location; // (optional) 이게 없으면 온라인 모임
   private int basePrice; // (optional)
   private int maxPrice; // (optional)
-  private int limitOfEnrollment;
+  private int limitOfEnrollment; // 0 이면 인원 제한 없음
+  private int numberOfEnrollments;
   private boolean offline;
   private boolean free;
   @Enumerated(EnumType.STRING)
   private EventStatus eventStatus = EventStatus.DRAFT;
+  @Version @JsonIgnore
+  private Long version; // ETag 로 노출
 
   public void update() {
     // Update free
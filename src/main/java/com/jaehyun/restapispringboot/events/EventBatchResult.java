@@ -0,0 +1,24 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.validation.Errors;
+
+@Getter @AllArgsConstructor(access = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EventBatchResult {
+
+  private final int index;
+  private final Integer id;
+  private final Errors errors;
+
+  public static EventBatchResult created(int index, Integer id) {
+    return new EventBatchResult(index, id, null);
+  }
+
+  public static EventBatchResult rejected(int index, Errors errors) {
+    return new EventBatchResult(index, null, errors);
+  }
+}
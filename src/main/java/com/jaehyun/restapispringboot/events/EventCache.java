@@ -0,0 +1,80 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.jaehyun.restapispringboot.cache.CacheInvalidatedEvent;
+import com.jaehyun.restapispringboot.cache.JdbcCacheInvalidator;
+import com.jaehyun.restapispringboot.datasource.ReplicaRouting;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 단건 이벤트 조회용 read-through 캐시. 크기와 TTL 은 spring.cache.caffeine.spec 으로 설정한다.
+ * 이벤트를 변경하는 쪽에서는 반드시 {@link #evict(Integer)} 나 {@link #clear()} 를 호출해야 한다.
+ * 그러면 다른 노드에도 알려서 이 캐시와 Hibernate 2차 캐시를 비우게 한다.
+ *
+ * 찾지 못한 id 는 캐시하지 않는다. write-behind 의 202 Location 이나 미리 할당된 id 를 다른 노드에서 먼저 조회해도
+ * 저장된 뒤에는 바로 보이므로 새로 만든 이벤트는 어느 노드에도 알릴 필요가 없다.
+ *
+ * replica 에서 읽은 값은 방금 쓴 내용이 아직 복제되지 않았을 수 있으므로 캐시에 넣지 않는다.
+ * 그래서 캐시에는 primary 에서 읽은 값만 있고, 방금 쓴 클라이언트가 primary 로 조회할 때도 그대로 쓸 수 있다.
+ */
+@Component
+public class EventCache {
+
+  public static final String EVENTS = "events";
+
+  private final EventRepository eventRepository;
+  private final Cache cache;
+  private final ObjectProvider<JdbcCacheInvalidator> invalidator;
+
+  public EventCache(EventRepository eventRepository, CacheManager cacheManager,
+                    ObjectProvider<JdbcCacheInvalidator> invalidator) {
+    this.eventRepository = eventRepository;
+    this.cache = cacheManager.getCache(EVENTS);
+    this.invalidator = invalidator;
+  }
+
+  public Optional<Event> findById(Integer id) {
+    Event cached = cache.get(id, Event.class);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    Optional<Event> event = eventRepository.findById(id);
+    if (!ReplicaRouting.isReadOnly()) {
+      event.ifPresent(found -> cache.put(id, found));
+    }
+    return event;
+  }
+
+  public void evict(Integer id) {
+    evictAll(List.of(id));
+  }
+
+  public void evictAll(Collection<Integer> ids) {
+    ids.forEach(cache::evict);
+    invalidator.ifAvailable(invalidator -> invalidator.publish(Event.class, ids));
+  }
+
+  public void clear() {
+    cache.clear();
+    invalidator.ifAvailable(invalidator -> invalidator.publishAll(Event.class));
+  }
+
+  @EventListener
+  public void onRemoteInvalidation(CacheInvalidatedEvent event) {
+    if (!Event.class.getName().equals(event.getEntityName())) {
+      return;
+    }
+    if (event.getEntityId() == null) {
+      cache.clear();
+    } else {
+      cache.evict(event.getEntityId().intValue());
+    }
+  }
+}
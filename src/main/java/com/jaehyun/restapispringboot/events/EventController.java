@@ -1,60 +1,560 @@
 package com.jaehyun.restapispringboot.events;
 
-import org.modelmapper.ModelMapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jaehyun.restapispringboot.common.ETags;
+import com.jaehyun.restapispringboot.events.EventMetrics.Stage;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PagedResourcesAssembler;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.MediaTypes;
-import org.springframework.hateoas.server.mvc.WebMvcLinkBuilder;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.ConstraintViolation;
 import javax.validation.Valid;
-import java.net.URI;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import static com.jaehyun.restapispringboot.common.BinaryFormatConfig.CBOR_VALUE;
+import static com.jaehyun.restapispringboot.common.BinaryFormatConfig.SMILE_VALUE;
 
 @Controller
-@RequestMapping(value="/api/events", produces= MediaTypes.HAL_JSON_VALUE)
+@Lazy(false) // fast-start 에서도 첫 요청이 컨트롤러와 의존성을 만드느라 늦어지지 않게 한다
+@RequestMapping(value="/api/events", produces= {MediaTypes.HAL_JSON_VALUE, CBOR_VALUE, SMILE_VALUE})
 public class EventController {
 
+  // produces 와 같은 순서. Accept 가 없거나 */* 면 첫 번째인 HAL JSON 으로 응답한다
+  private static final List<MediaType> REPRESENTATIONS =
+          List.of(MediaTypes.HAL_JSON, MediaType.parseMediaType(CBOR_VALUE), MediaType.parseMediaType(SMILE_VALUE));
+
+  static final String NDJSON_VALUE = "application/x-ndjson";
+  static final String CSV_VALUE = "text/csv";
+  static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+  // Event.update() 가 free / offline 을 정할 때 보는 필드
+  private static final Set<String> DERIVED_FROM = Set.of("basePrice", "maxPrice", "location");
+
   private final EventRepository eventRepository;
-  private final ModelMapper modelMapper;
+  private final EventMapper eventMapper;
   private final EventValidator eventValidator;
+  private final SpringValidatorAdapter validator;
+  private final ObjectReader eventDtoReader;
+  private final EventCache eventCache;
+  private final EventMetrics eventMetrics;
+  private final EventExporter eventExporter;
+  private final EventLinks eventLinks;
+  private final EventResourceAssembler eventResourceAssembler;
+  private final EventSearch eventSearch;
+  private final EventValidationProperties validationProperties;
+  private final EventWriteBehind writeBehind;
 
-
-  public EventController(EventRepository eventRepository, ModelMapper modelMapper, EventValidator eventValidator) {
+  public EventController(EventRepository eventRepository, EventMapper eventMapper, EventValidator eventValidator,
+                         Validator validator, ObjectMapper objectMapper, EventCache eventCache,
+                         EventMetrics eventMetrics, EventExporter eventExporter, EventLinks eventLinks,
+                         EventResourceAssembler eventResourceAssembler, EventSearch eventSearch,
+                         EventValidationProperties validationProperties,
+                         ObjectProvider<EventWriteBehind> writeBehind) {
     this.eventRepository = eventRepository;
-    this.modelMapper = modelMapper;
+    this.writeBehind = writeBehind.getIfAvailable();
+    this.validationProperties = validationProperties;
+    this.eventSearch = eventSearch;
+    this.eventLinks = eventLinks;
+    this.eventResourceAssembler = eventResourceAssembler;
+    this.eventExporter = eventExporter;
+    this.eventCache = eventCache;
+    this.eventMetrics = eventMetrics;
+    this.eventMapper = eventMapper;
     this.eventValidator = eventValidator;
+    this.validator = new SpringValidatorAdapter(validator);
+    this.eventDtoReader = objectMapper.readerFor(EventDto.class);
   }
 
   @PostMapping
-  public ResponseEntity createEvent(@RequestBody @Valid EventDto eventDto, Errors errors) {
+  public ResponseEntity createEvent(@RequestBody EventDto eventDto, Errors errors) {
+    if (validationProperties.getMode() == EventValidationProperties.Mode.FAIL_FAST) {
+      EventRejection rejection = eventValidator.firstRejection(eventDto);
+      if (rejection != null) {
+        eventMetrics.rejected(rejection.getCode());
+        return rejection.toResponse();
+      }
+    }
+
+    // @Valid 대신 직접 검증해야 bean validation 시간을 따로 잴 수 있다
+    eventMetrics.time(Stage.BEAN_VALIDATION, () -> validator.validate(eventDto, errors));
+    if (errors.hasErrors()) {
+      eventMetrics.rejected(errors);
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    eventMetrics.time(Stage.EVENT_VALIDATOR, () -> eventValidator.validate(eventDto, errors));
     if (errors.hasErrors()) {
+      eventMetrics.rejected(errors);
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    if (writeBehind != null) {
+      Optional<Integer> id = eventMetrics.time(Stage.SAVE, () -> writeBehind.enqueue(eventDto));
+      if (id.isPresent()) {
+        return ResponseEntity.accepted().location(eventLinks.eventUri(id.get()))
+                .body(writeStatus(id.get(), EventWriteStatus.State.QUEUED));
+      }
+      // 큐가 가득 찼으면 동기로 저장한다
+    }
+
+    Event event = eventMetrics.time(Stage.MAPPING, () -> {
+      Event mapped = eventMapper.toEvent(eventDto);
+      mapped.update();
+      return mapped;
+    });
+    Event newEvent = eventMetrics.time(Stage.SAVE, () -> this.eventRepository.save(event));
+    return eventMetrics.time(Stage.RESOURCE, () -> {
+      EventResource eventResource = eventResourceAssembler.toModel(newEvent);
+      eventResource.add(eventLinks.queryEvents());
+      eventResource.add(eventLinks.updateEvent(newEvent.getId()));
+      eventResource.add(EventLinks.PROFILE_CREATE);
+      return ResponseEntity.created(eventLinks.eventUri(newEvent.getId()))
+              .eTag(eTag(newEvent.getVersion()))
+              .varyBy(HttpHeaders.ACCEPT)
+              .body(eventResource);
+    });
+  }
+
+  @GetMapping
+  public ResponseEntity queryEvents(EventFilter filter, Pageable pageable, PagedResourcesAssembler<Event> assembler,
+                                    @RequestParam(required = false) Integer after) {
+    if (after != null) {
+      // keyset 페이징은 id 오름차순으로만 이어지므로 다른 정렬을 조용히 무시하지 않고 거절한다
+      if (!isIdAscending(pageable.getSort())) {
+        Errors errors = new MapBindingResult(new HashMap<>(), "query");
+        errors.reject("unsupportedSort", "sort is not supported with after; results are ordered by id ascending");
+        return ResponseEntity.badRequest().body(errors);
+      }
+      return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(queryEventsAfter(filter, after, pageable.getPageSize()));
+    }
+    Page<Event> page = this.eventRepository.findAll(filter.toSpecification(), pageable);
+    PagedModel<EventResource> pagedResources = assembler.toModel(page, eventResourceAssembler);
+    pagedResources.add(EventLinks.PROFILE_LIST);
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(pagedResources);
+  }
+
+  private static boolean isIdAscending(Sort sort) {
+    return sort.stream().allMatch(order -> order.getProperty().equals("id") && order.isAscending());
+  }
+
+  private CollectionModel<EventResource> queryEventsAfter(EventFilter filter, int after, int size) {
+    List<Event> events = this.eventRepository.findAllAfter(filter.toSpecification(), after, size);
+    CollectionModel<EventResource> resources = eventResourceAssembler.toCollectionModel(events);
+    ServletUriComponentsBuilder self = ServletUriComponentsBuilder.fromCurrentRequest();
+    resources.add(new Link(self.toUriString()).withSelfRel());
+    if (events.size() == size) {
+      Integer lastId = events.get(events.size() - 1).getId();
+      resources.add(new Link(self.replaceQueryParam("after", lastId).toUriString()).withRel(IanaLinkRelations.NEXT));
+    }
+    resources.add(EventLinks.PROFILE_LIST);
+    return resources;
+  }
+
+  @GetMapping("/search")
+  public ResponseEntity searchEvents(@RequestParam(required = false) String q, Pageable pageable,
+                                     PagedResourcesAssembler<Event> assembler) {
+    if (q == null || q.isBlank()) {
+      Errors errors = new MapBindingResult(new HashMap<>(), "search");
+      errors.reject("emptyQuery", "q must not be blank");
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    Page<Event> page = this.eventSearch.search(q, pageable);
+    PagedModel<EventResource> pagedResources = assembler.toModel(page, eventResourceAssembler);
+    pagedResources.add(EventLinks.PROFILE_SEARCH);
+    return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(pagedResources);
+  }
+
+  @GetMapping(value = "/export", produces = NDJSON_VALUE)
+  public void exportEventsAsNdjson(HttpServletResponse response) throws IOException {
+    response.setContentType(NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    this.eventExporter.writeNdjson(response.getOutputStream());
+  }
+
+  @GetMapping(value = "/export", produces = CSV_VALUE)
+  public void exportEventsAsCsv(HttpServletResponse response) throws IOException {
+    response.setContentType(CSV_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    this.eventExporter.writeCsv(response.getOutputStream());
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity getEvent(@PathVariable Integer id,
+                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    // 엔티티를 읽고 직렬화하기 전에 version 만 조회해서 304 여부를 판단한다
+    if (ifNoneMatch != null) {
+      Optional<Long> version = this.eventRepository.findVersionById(id);
+      if (version.isEmpty()) {
+        return ResponseEntity.notFound().build();
+      }
+      String eTag = eTag(version.get());
+      if (ETags.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+      }
+    }
+
+    Optional<Event> optionalEvent = this.eventCache.findById(id);
+    if (optionalEvent.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+
+    Event event = optionalEvent.get();
+    EventResource eventResource = eventResourceAssembler.toModel(event);
+    eventResource.add(EventLinks.PROFILE_GET);
+    return ResponseEntity.ok().eTag(eTag(event.getVersion())).varyBy(HttpHeaders.ACCEPT).body(eventResource);
+  }
+
+  @GetMapping("/{id}/status")
+  public ResponseEntity getWriteStatus(@PathVariable Integer id) {
+    Optional<EventWriteStatus.State> state;
+    if (writeBehind != null) {
+      state = writeBehind.status(id);
+    } else {
+      state = this.eventRepository.existsById(id) ? Optional.of(EventWriteStatus.State.PERSISTED) : Optional.empty();
+    }
+    if (state.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    return ResponseEntity.ok(writeStatus(id, state.get()));
+  }
+
+  private EventWriteStatus writeStatus(Integer id, EventWriteStatus.State state) {
+    EventWriteStatus status = new EventWriteStatus(id, state);
+    status.add(eventLinks.writeStatus(id));
+    status.add(new Link(eventLinks.eventHref(id), "event"));
+    status.add(EventLinks.PROFILE_WRITE_STATUS);
+    return status;
+  }
+
+  @PutMapping("/{id}")
+  public ResponseEntity updateEvent(@PathVariable Integer id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @RequestBody @Valid EventDto eventDto, Errors errors) {
+    Optional<Event> optionalEvent = this.eventRepository.findById(id);
+    if (optionalEvent.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+
+    Event existingEvent = optionalEvent.get();
+    ResponseEntity preconditionFailure = checkIfMatch(ifMatch, existingEvent);
+    if (preconditionFailure != null) {
+      return preconditionFailure;
+    }
+
+    if (errors.hasErrors()) {
+      eventMetrics.rejected(errors);
       return ResponseEntity.badRequest().body(errors);
     }
 
     eventValidator.validate(eventDto, errors);
     if (errors.hasErrors()) {
+      eventMetrics.rejected(errors);
       return ResponseEntity.badRequest().body(errors);
     }
 
-    Event event = modelMapper.map(eventDto, Event.class);
-    event.update();
-    Event newEvent = this.eventRepository.save(event);
-    WebMvcLinkBuilder selfLinkBuilder = linkTo(EventController.class).slash(newEvent.getId());
-    URI createUri = selfLinkBuilder.toUri();
-    event.setId(10);
-    EventResource eventResource = new EventResource(event);
-    eventResource.add(linkTo(EventController.class).withRel("query-events"));
-    eventResource.add(selfLinkBuilder.withRel("update-event"));
-    eventResource.add(new Link("/docs/index.html#resources-events-create").withRel("profile"));
-    return ResponseEntity.created(createUri).body(eventResource);
+    this.eventMapper.update(eventDto, existingEvent);
+    existingEvent.update();
+    Event savedEvent;
+    try {
+      savedEvent = this.eventRepository.save(existingEvent);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      // If-Match 확인 이후에 다른 요청이 먼저 수정한 경우
+      return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    } finally {
+      this.eventCache.evict(id);
+    }
+
+    EventResource eventResource = eventResourceAssembler.toModel(savedEvent);
+    eventResource.add(EventLinks.PROFILE_UPDATE);
+    return ResponseEntity.ok().eTag(eTag(savedEvent.getVersion())).varyBy(HttpHeaders.ACCEPT).body(eventResource);
+  }
+
+  /**
+   * JSON Merge Patch (RFC 7396). 요청에 있는 필드만 바꾸고 null 은 값을 지운다.
+   * 바뀐 필드의 제약 조건과 그 필드가 걸린 EventValidator 규칙만 검사하고, free / offline 은 가격이나 장소가 바뀔 때만 다시 계산한다.
+   */
+  @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_VALUE)
+  public ResponseEntity patchEvent(@PathVariable Integer id,
+                                   @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                   @RequestBody ObjectNode patch) {
+    Optional<Event> optionalEvent = this.eventRepository.findById(id);
+    if (optionalEvent.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+
+    Event existingEvent = optionalEvent.get();
+    ResponseEntity preconditionFailure = checkIfMatch(ifMatch, existingEvent);
+    if (preconditionFailure != null) {
+      return preconditionFailure;
+    }
+
+    EventDto original = this.eventMapper.toDto(existingEvent);
+    EventDto eventDto = this.eventMapper.toDto(existingEvent);
+    Errors errors = new BeanPropertyBindingResult(eventDto, "eventDto");
+    try {
+      eventDtoReader.withValueToUpdate(eventDto).readValue(patch);
+    } catch (IOException e) {
+      errors.reject("wrongPatch", e.getMessage());
+      eventMetrics.rejected(errors);
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    Set<String> changedFields = changedFields(original, eventDto, patch);
+    if (changedFields.isEmpty()) {
+      EventResource eventResource = eventResourceAssembler.toModel(existingEvent);
+      eventResource.add(EventLinks.PROFILE_PATCH);
+      return ResponseEntity.ok().eTag(eTag(existingEvent.getVersion())).varyBy(HttpHeaders.ACCEPT).body(eventResource);
+    }
+
+    for (String field : changedFields) {
+      for (ConstraintViolation<EventDto> violation : validator.validateProperty(eventDto, field)) {
+        errors.rejectValue(field, violation.getConstraintDescriptor().getAnnotation().annotationType().getSimpleName(),
+                violation.getMessage());
+      }
+    }
+    if (errors.hasErrors()) {
+      eventMetrics.rejected(errors);
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    eventValidator.validate(eventDto, changedFields, errors);
+    if (errors.hasErrors()) {
+      eventMetrics.rejected(errors);
+      return ResponseEntity.badRequest().body(errors);
+    }
+
+    // 바뀌지 않은 필드는 같은 값을 다시 넣으므로 dirty 로 잡히지 않는다
+    this.eventMapper.update(eventDto, existingEvent);
+    if (!Collections.disjoint(changedFields, DERIVED_FROM)) {
+      existingEvent.update();
+    }
+    Event savedEvent;
+    try {
+      savedEvent = this.eventRepository.save(existingEvent);
+    } catch (ObjectOptimisticLockingFailureException e) {
+      return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+    } finally {
+      this.eventCache.evict(id);
+    }
+
+    EventResource eventResource = eventResourceAssembler.toModel(savedEvent);
+    eventResource.add(EventLinks.PROFILE_PATCH);
+    return ResponseEntity.ok().eTag(eTag(savedEvent.getVersion())).varyBy(HttpHeaders.ACCEPT).body(eventResource);
+  }
+
+  // If-Match 가 없으면 428, 현재 버전과 다르면 412. 통과하면 null
+  private ResponseEntity checkIfMatch(String ifMatch, Event existingEvent) {
+    if (ifMatch == null) {
+      return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+    }
+    if (!ETags.matchesIfMatch(ifMatch, existingEvent.getVersion(), REPRESENTATIONS)) {
+      return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(eTag(existingEvent.getVersion())).build();
+    }
+    return null;
+  }
+
+  // 메시지 컨버터가 고를 표현을 미리 정해서 ETag 에 반영한다. 304 응답에는 본문이 없어서 컨버터를 거치지 않기 때문이다
+  private static String eTag(Long version) {
+    return ETags.of(version, representation());
+  }
+
+  private static MediaType representation() {
+    HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+    List<MediaType> acceptable;
+    try {
+      acceptable = MediaType.parseMediaTypes(request.getHeader(HttpHeaders.ACCEPT));
+    } catch (InvalidMediaTypeException e) {
+      return REPRESENTATIONS.get(0);
+    }
+    MediaType.sortBySpecificityAndQuality(acceptable);
+    for (MediaType mediaType : acceptable) {
+      for (MediaType representation : REPRESENTATIONS) {
+        if (mediaType.getQualityValue() > 0 && mediaType.isCompatibleWith(representation)) {
+          return representation;
+        }
+      }
+    }
+    return REPRESENTATIONS.get(0);
+  }
+
+  // patch 에 있는 필드 중 값이 실제로 바뀐 것
+  private static Set<String> changedFields(EventDto original, EventDto patched, ObjectNode patch) {
+    BeanWrapper before = new BeanWrapperImpl(original);
+    BeanWrapper after = new BeanWrapperImpl(patched);
+    Set<String> changedFields = new HashSet<>();
+    patch.fieldNames().forEachRemaining(field -> {
+      if (!Objects.equals(before.getPropertyValue(field), after.getPropertyValue(field))) {
+        changedFields.add(field);
+      }
+    });
+    return changedFields;
+  }
+
+  @PostMapping("/{id}/enrollments")
+  public ResponseEntity enroll(@PathVariable Integer id) {
+    LocalDateTime now = LocalDateTime.now();
+    if (this.eventRepository.enroll(id, now) == 1) {
+      this.eventCache.evict(id);
+      return ResponseEntity.noContent().build();
+    }
+
+    // 실패한 경우에만 이벤트를 읽어서 이유를 알려준다
+    Optional<Event> optionalEvent = this.eventRepository.findById(id);
+    if (optionalEvent.isEmpty()) {
+      return ResponseEntity.notFound().build();
+    }
+    Event event = optionalEvent.get();
+    Errors errors = new MapBindingResult(new HashMap<>(), "enrollment");
+    if (event.getEventStatus() == EventStatus.DRAFT) {
+      errors.reject("notPublished", "Event has not been published");
+    } else if ((event.getEventStatus() != EventStatus.PUBLISHED && event.getEventStatus() != EventStatus.BEGAN_ENROLLMENT)
+            || now.isBefore(event.getBeginEnrollmentDateTime()) || !now.isBefore(event.getCloseEnrollmentDateTime())) {
+      errors.reject("enrollmentClosed", "Enrollment is not open for this event");
+    } else {
+      errors.reject("enrollmentFull", "limitOfEnrollment has been reached");
+    }
+    eventMetrics.rejected(errors);
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+  }
+
+  @PostMapping("/{id}/publish")
+  public ResponseEntity publish(@PathVariable Integer id) {
+    if (this.eventRepository.publish(id) == 1) {
+      this.eventCache.evict(id);
+      return ResponseEntity.noContent().build();
+    }
+
+    if (!this.eventRepository.existsById(id)) {
+      return ResponseEntity.notFound().build();
+    }
+    Errors errors = new MapBindingResult(new HashMap<>(), "event");
+    errors.reject("alreadyPublished", "Only DRAFT events can be published");
+    eventMetrics.rejected(errors);
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+  }
+
+  @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity createEvents(@RequestBody List<EventDto> eventDtos) {
+    List<BindingResult> items = new ArrayList<>(eventDtos.size());
+    eventDtos.forEach(eventDto -> items.add(bind(eventDto)));
+    return ResponseEntity.ok(createAll(items));
+  }
+
+  @PostMapping(value = "/batch", consumes = NDJSON_VALUE)
+  public ResponseEntity createEventsFromNdjson(InputStream body) throws IOException {
+    List<BindingResult> items = new ArrayList<>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      if (line.isBlank()) {
+        continue;
+      }
+      try {
+        items.add(bind(eventDtoReader.readValue(line)));
+      } catch (JsonProcessingException e) {
+        BindingResult errors = new MapBindingResult(new HashMap<>(), "eventDto");
+        errors.reject("malformedJson", e.getOriginalMessage());
+        items.add(errors);
+      }
+    }
+    return ResponseEntity.ok(createAll(items));
+  }
+
+  private BindingResult bind(EventDto eventDto) {
+    if (eventDto == null) {
+      BindingResult errors = new MapBindingResult(new HashMap<>(), "eventDto");
+      errors.reject("emptyEvent", "Event must not be null");
+      return errors;
+    }
+    return new BeanPropertyBindingResult(eventDto, "eventDto");
+  }
+
+  private List<EventBatchResult> createAll(List<BindingResult> items) {
+    EventBatchResult[] results = new EventBatchResult[items.size()];
+    Map<Integer, Event> accepted = new LinkedHashMap<>();
+    for (int i = 0; i < items.size(); i++) {
+      BindingResult errors = items.get(i);
+      if (!errors.hasErrors()) {
+        EventDto eventDto = (EventDto) errors.getTarget();
+        validator.validate(eventDto, errors);
+        if (!errors.hasErrors()) {
+          eventValidator.validate(eventDto, errors);
+        }
+        if (!errors.hasErrors()) {
+          Event event = eventMapper.toEvent(eventDto);
+          event.update();
+          accepted.put(i, event);
+          continue;
+        }
+      }
+      eventMetrics.rejected(errors);
+      results[i] = EventBatchResult.rejected(i, errors);
+    }
 
+    // 한 번의 트랜잭션에서 hibernate.jdbc.batch_size 단위로 묶어서 insert 한다
+    this.eventRepository.saveAll(accepted.values());
+    List<Integer> ids = new ArrayList<>(accepted.size());
+    accepted.forEach((index, event) -> {
+      ids.add(event.getId());
+      results[index] = EventBatchResult.created(index, event.getId());
+    });
+    return Arrays.asList(results);
   }
 }
@@ -8,12 +8,14 @@ import lombok.NoArgsConstructor;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 import java.time.LocalDateTime;
-@Data @Builder @NoArgsConstructor @AllArgsConstructor
+@Data @Builder(toBuilder = true) @NoArgsConstructor @AllArgsConstructor
 public class EventDto {
-  @NotEmpty
+  // 컬럼 길이(varchar(255))를 넘으면 write-behind 에서 202 를 응답한 뒤에야 insert 가 실패한다
+  @NotEmpty @Size(max = 255)
   private String name;
-  @NotEmpty
+  @NotEmpty @Size(max = 255)
   private String description;
   @NotNull
   private LocalDateTime beginEnrollmentDateTime;
@@ -23,6 +25,7 @@ public class EventDto {
   private LocalDateTime beginEventDateTime;
   @NotNull
   private LocalDateTime endEventDateTime;
+  @Size(max = 255)
   private String location; // (optional) 이게 없으면 온라인 모임
   @Min(0)
   private int basePrice; // (optional)
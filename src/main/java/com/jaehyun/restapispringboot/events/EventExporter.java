@@ -0,0 +1,143 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * 전체 이벤트를 NDJSON / CSV 로 내보낸다. 커서로 한 건씩 읽어서 바로 쓰고 영속성 컨텍스트에서 떼어내므로
+ * 테이블 크기와 상관없이 메모리 사용량이 일정하다.
+ */
+@Component
+public class EventExporter {
+
+  private static final int FLUSH_INTERVAL = 500;
+  private static final String[] CSV_HEADER = {
+          "id", "name", "description", "beginEnrollmentDateTime", "closeEnrollmentDateTime",
+          "beginEventDateTime", "endEventDateTime", "location", "basePrice", "maxPrice",
+          "limitOfEnrollment", "numberOfEnrollments", "offline", "free", "eventStatus"
+  };
+
+  private final EventRepository eventRepository;
+  private final ObjectMapper objectMapper;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  public EventExporter(EventRepository eventRepository, ObjectMapper objectMapper) {
+    this.eventRepository = eventRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  @Transactional(readOnly = true)
+  public void writeNdjson(OutputStream out) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+    try (Stream<Event> events = eventRepository.streamAllBy()) {
+      Iterator<Event> iterator = events.iterator();
+      int count = 0;
+      while (iterator.hasNext()) {
+        Event event = iterator.next();
+        writeEvent(generator, event);
+        generator.writeRaw('\n');
+        entityManager.detach(event);
+        if (++count % FLUSH_INTERVAL == 0) {
+          generator.flush();
+        }
+      }
+    }
+    generator.close();
+  }
+
+  @Transactional(readOnly = true)
+  public void writeCsv(OutputStream out) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    writer.write(String.join(",", CSV_HEADER));
+    writer.write('\n');
+    try (Stream<Event> events = eventRepository.streamAllBy()) {
+      Iterator<Event> iterator = events.iterator();
+      int count = 0;
+      while (iterator.hasNext()) {
+        Event event = iterator.next();
+        writeCsvRow(writer, event);
+        entityManager.detach(event);
+        if (++count % FLUSH_INTERVAL == 0) {
+          writer.flush();
+        }
+      }
+    }
+    writer.flush();
+  }
+
+  private void writeEvent(JsonGenerator generator, Event event) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", event.getId());
+    generator.writeStringField("name", event.getName());
+    generator.writeStringField("description", event.getDescription());
+    generator.writeStringField("beginEnrollmentDateTime", format(event.getBeginEnrollmentDateTime()));
+    generator.writeStringField("closeEnrollmentDateTime", format(event.getCloseEnrollmentDateTime()));
+    generator.writeStringField("beginEventDateTime", format(event.getBeginEventDateTime()));
+    generator.writeStringField("endEventDateTime", format(event.getEndEventDateTime()));
+    generator.writeStringField("location", event.getLocation());
+    generator.writeNumberField("basePrice", event.getBasePrice());
+    generator.writeNumberField("maxPrice", event.getMaxPrice());
+    generator.writeNumberField("limitOfEnrollment", event.getLimitOfEnrollment());
+    generator.writeNumberField("numberOfEnrollments", event.getNumberOfEnrollments());
+    generator.writeBooleanField("offline", event.isOffline());
+    generator.writeBooleanField("free", event.isFree());
+    generator.writeStringField("eventStatus", event.getEventStatus() == null ? null : event.getEventStatus().name());
+    generator.writeEndObject();
+  }
+
+  private void writeCsvRow(Writer writer, Event event) throws IOException {
+    writer.write(String.valueOf(event.getId()));
+    writeCsvField(writer, event.getName());
+    writeCsvField(writer, event.getDescription());
+    writeCsvField(writer, format(event.getBeginEnrollmentDateTime()));
+    writeCsvField(writer, format(event.getCloseEnrollmentDateTime()));
+    writeCsvField(writer, format(event.getBeginEventDateTime()));
+    writeCsvField(writer, format(event.getEndEventDateTime()));
+    writeCsvField(writer, event.getLocation());
+    writeCsvField(writer, String.valueOf(event.getBasePrice()));
+    writeCsvField(writer, String.valueOf(event.getMaxPrice()));
+    writeCsvField(writer, String.valueOf(event.getLimitOfEnrollment()));
+    writeCsvField(writer, String.valueOf(event.getNumberOfEnrollments()));
+    writeCsvField(writer, String.valueOf(event.isOffline()));
+    writeCsvField(writer, String.valueOf(event.isFree()));
+    writeCsvField(writer, event.getEventStatus() == null ? null : event.getEventStatus().name());
+    writer.write('\n');
+  }
+
+  private void writeCsvField(Writer writer, String value) throws IOException {
+    writer.write(',');
+    if (value == null) {
+      return;
+    }
+    if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+      writer.write(value);
+      return;
+    }
+    writer.write('"');
+    writer.write(value.replace("\"", "\"\""));
+    writer.write('"');
+  }
+
+  private String format(LocalDateTime dateTime) {
+    return dateTime == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime);
+  }
+}
@@ -0,0 +1,67 @@
+package com.jaehyun.restapispringboot.events;
+
+import lombok.Data;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import javax.persistence.criteria.Predicate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.format.annotation.DateTimeFormat.ISO;
+
+/**
+ * GET /api/events 의 검색 조건. 기간 조건은 이벤트의 모집/진행 기간과 겹치는(overlap) 이벤트를 찾는다.
+ */
+@Data
+public class EventFilter {
+
+  private EventStatus eventStatus;
+  private Boolean free;
+  private Boolean offline;
+  private Integer priceFrom;
+  private Integer priceTo;
+  @DateTimeFormat(iso = ISO.DATE_TIME)
+  private LocalDateTime enrollmentFrom;
+  @DateTimeFormat(iso = ISO.DATE_TIME)
+  private LocalDateTime enrollmentTo;
+  @DateTimeFormat(iso = ISO.DATE_TIME)
+  private LocalDateTime eventFrom;
+  @DateTimeFormat(iso = ISO.DATE_TIME)
+  private LocalDateTime eventTo;
+
+  public Specification<Event> toSpecification() {
+    return (root, query, cb) -> {
+      List<Predicate> predicates = new ArrayList<>();
+      if (eventStatus != null) {
+        predicates.add(cb.equal(root.get("eventStatus"), eventStatus));
+      }
+      if (free != null) {
+        predicates.add(cb.equal(root.get("free"), free));
+      }
+      if (offline != null) {
+        predicates.add(cb.equal(root.get("offline"), offline));
+      }
+      if (priceFrom != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.get("basePrice"), priceFrom));
+      }
+      if (priceTo != null) {
+        predicates.add(cb.lessThanOrEqualTo(root.get("basePrice"), priceTo));
+      }
+      if (enrollmentFrom != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.get("closeEnrollmentDateTime"), enrollmentFrom));
+      }
+      if (enrollmentTo != null) {
+        predicates.add(cb.lessThanOrEqualTo(root.get("beginEnrollmentDateTime"), enrollmentTo));
+      }
+      if (eventFrom != null) {
+        predicates.add(cb.greaterThanOrEqualTo(root.get("endEventDateTime"), eventFrom));
+      }
+      if (eventTo != null) {
+        predicates.add(cb.lessThanOrEqualTo(root.get("beginEventDateTime"), eventTo));
+      }
+      return cb.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+}
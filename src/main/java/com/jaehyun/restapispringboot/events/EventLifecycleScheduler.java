@@ -0,0 +1,84 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.jaehyun.restapispringboot.events.EventStatus.BEGAN_ENROLLMENT;
+import static com.jaehyun.restapispringboot.events.EventStatus.CLOSED_ENROLLMENT;
+import static com.jaehyun.restapispringboot.events.EventStatus.ENDED;
+import static com.jaehyun.restapispringboot.events.EventStatus.PUBLISHED;
+import static com.jaehyun.restapispringboot.events.EventStatus.STARTED;
+
+/**
+ * 시각이 지난 이벤트의 상태를 PUBLISHED -> BEGAN_ENROLLMENT -> CLOSED_ENROLLMENT -> STARTED -> ENDED 로 옮긴다.
+ * DRAFT 는 공개되지 않은 이벤트이므로 건드리지 않는다. POST /api/events/{id}/publish 로 PUBLISHED 가 된 뒤부터 옮긴다.
+ *
+ * 전이마다 (eventStatus, 날짜) 인덱스로 전이할 이벤트만 읽어서 UPDATE 하고, 바뀐 이벤트만 캐시에서 비운다.
+ * 상태는 현재 시각과 DB 의 상태만으로 결정되기 때문에 재시작 후 첫 tick 에서 밀린 전이를 모두 따라잡는다.
+ */
+@Component
+@Lazy(false)
+@ConditionalOnProperty(name = "events.lifecycle.enabled", havingValue = "true", matchIfMissing = true)
+public class EventLifecycleScheduler {
+
+  private static final Logger log = LoggerFactory.getLogger(EventLifecycleScheduler.class);
+
+  // 늦은 단계부터 적용해야 여러 시각이 한꺼번에 지난 이벤트가 최종 상태로 바로 간다
+  private static final List<Transition> TRANSITIONS = List.of(
+          new Transition("endEventDateTime", ENDED, EnumSet.of(PUBLISHED, BEGAN_ENROLLMENT, CLOSED_ENROLLMENT, STARTED)),
+          new Transition("beginEventDateTime", STARTED, EnumSet.of(PUBLISHED, BEGAN_ENROLLMENT, CLOSED_ENROLLMENT)),
+          new Transition("closeEnrollmentDateTime", CLOSED_ENROLLMENT, EnumSet.of(PUBLISHED, BEGAN_ENROLLMENT)),
+          new Transition("beginEnrollmentDateTime", BEGAN_ENROLLMENT, EnumSet.of(PUBLISHED))
+  );
+
+  private final EventRepository eventRepository;
+  private final EventCache eventCache;
+
+  public EventLifecycleScheduler(EventRepository eventRepository, EventCache eventCache) {
+    this.eventRepository = eventRepository;
+    this.eventCache = eventCache;
+  }
+
+  @Scheduled(fixedDelayString = "${events.lifecycle.fixed-delay:60000}")
+  public void tick() {
+    advance(LocalDateTime.now());
+  }
+
+  public int advance(LocalDateTime now) {
+    Set<Integer> updated = new HashSet<>();
+    for (Transition transition : TRANSITIONS) {
+      List<Integer> ids = eventRepository.transitionStatus(transition.from, transition.to, transition.dateAttribute, now);
+      if (!ids.isEmpty()) {
+        log.info("{} events moved to {}", ids.size(), transition.to);
+      }
+      updated.addAll(ids);
+    }
+    // 바뀐 이벤트만 비우고 다른 노드에도 그 id 만 알린다
+    if (!updated.isEmpty()) {
+      eventCache.evictAll(updated);
+    }
+    return updated.size();
+  }
+
+  private static class Transition {
+    private final String dateAttribute;
+    private final EventStatus to;
+    private final Set<EventStatus> from;
+
+    Transition(String dateAttribute, EventStatus to, Set<EventStatus> from) {
+      this.dateAttribute = dateAttribute;
+      this.to = to;
+      this.from = from;
+    }
+  }
+}
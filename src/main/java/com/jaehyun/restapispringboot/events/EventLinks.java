@@ -0,0 +1,67 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.net.URI;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * /api/events 링크를 만든다. linkTo(EventController.class) 는 요청마다 한 번만 계산해서 request attribute 에 두고,
+ * 이벤트 링크는 그 뒤에 id 만 붙인다. 만들어지는 href 는 linkTo(EventController.class).slash(id) 와 같다.
+ */
+@Component
+public class EventLinks {
+
+  public static final Link PROFILE_LIST = new Link("/docs/index.html#resources-events-list").withRel("profile");
+  public static final Link PROFILE_SEARCH = new Link("/docs/index.html#resources-events-search").withRel("profile");
+  public static final Link PROFILE_CREATE = new Link("/docs/index.html#resources-events-create").withRel("profile");
+  public static final Link PROFILE_GET = new Link("/docs/index.html#resources-events-get").withRel("profile");
+  public static final Link PROFILE_WRITE_STATUS = new Link("/docs/index.html#resources-events-write-status").withRel("profile");
+  public static final Link PROFILE_UPDATE = new Link("/docs/index.html#resources-events-update").withRel("profile");
+  public static final Link PROFILE_PATCH = new Link("/docs/index.html#resources-events-patch").withRel("profile");
+
+  private static final String EVENTS_HREF = EventLinks.class.getName() + ".eventsHref";
+
+  public String eventsHref() {
+    RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+    String href = (String) attributes.getAttribute(EVENTS_HREF, RequestAttributes.SCOPE_REQUEST);
+    if (href == null) {
+      href = linkTo(EventController.class).toUri().toString();
+      attributes.setAttribute(EVENTS_HREF, href, RequestAttributes.SCOPE_REQUEST);
+    }
+    return href;
+  }
+
+  public String eventHref(Integer id) {
+    return eventHref(eventsHref(), id);
+  }
+
+  public URI eventUri(Integer id) {
+    return URI.create(eventHref(id));
+  }
+
+  public Link self(Integer id) {
+    return new Link(eventHref(id), IanaLinkRelations.SELF);
+  }
+
+  public Link queryEvents() {
+    return new Link(eventsHref(), "query-events");
+  }
+
+  public Link updateEvent(Integer id) {
+    return new Link(eventHref(id), "update-event");
+  }
+
+  public Link writeStatus(Integer id) {
+    return new Link(eventHref(id) + "/status", IanaLinkRelations.SELF);
+  }
+
+  static String eventHref(String eventsHref, Integer id) {
+    return eventsHref + "/" + id;
+  }
+}
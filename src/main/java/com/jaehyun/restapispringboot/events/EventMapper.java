@@ -0,0 +1,33 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Builder;
+import org.mapstruct.InheritConfiguration;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * 컴파일 시점에 생성되는 EventDto <-> Event 매퍼. EventDto 에 필드를 추가하고 매핑하지 않으면 컴파일이 실패한다.
+ */
+@Mapper(componentModel = "spring", builder = @Builder(disableBuilder = true),
+        unmappedSourcePolicy = ReportingPolicy.ERROR, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface EventMapper {
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "offline", ignore = true)
+  @Mapping(target = "free", ignore = true)
+  @Mapping(target = "eventStatus", ignore = true)
+  @Mapping(target = "numberOfEnrollments", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  Event toEvent(EventDto eventDto);
+
+  @InheritConfiguration
+  void update(EventDto eventDto, @MappingTarget Event event);
+
+  // 부분 수정에서 저장된 이벤트에 patch 를 덮어쓸 출발점
+  @BeanMapping(ignoreUnmappedSourceProperties = {"id", "offline", "free", "eventStatus", "numberOfEnrollments",
+          "version", "links"})
+  EventDto toDto(Event event);
+}
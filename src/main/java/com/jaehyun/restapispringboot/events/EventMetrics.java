@@ -0,0 +1,68 @@
+package com.jaehyun.restapispringboot.events;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ObjectError;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * POST /api/events 의 단계별 처리 시간(events.create.stage)과 거절 코드별 횟수(events.rejections).
+ * 단계별 타이머는 histogram 을 공개하므로 Prometheus 에서 p99 를 계산할 수 있다.
+ */
+@Component
+public class EventMetrics {
+
+  public enum Stage {
+    BEAN_VALIDATION("beanValidation"),
+    EVENT_VALIDATOR("eventValidator"),
+    MAPPING("mapping"),
+    SAVE("save"),
+    RESOURCE("resource");
+
+    private final String tag;
+
+    Stage(String tag) {
+      this.tag = tag;
+    }
+  }
+
+  private final MeterRegistry meterRegistry;
+  private final Map<Stage, Timer> timers = new EnumMap<>(Stage.class);
+  private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+  public EventMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    for (Stage stage : Stage.values()) {
+      timers.put(stage, Timer.builder("events.create.stage")
+              .description("Time spent in each stage of event creation")
+              .tag("stage", stage.tag)
+              .publishPercentileHistogram()
+              .register(meterRegistry));
+    }
+  }
+
+  public <T> T time(Stage stage, Supplier<T> supplier) {
+    return timers.get(stage).record(supplier);
+  }
+
+  public void time(Stage stage, Runnable runnable) {
+    timers.get(stage).record(runnable);
+  }
+
+  public void rejected(Errors errors) {
+    for (ObjectError error : errors.getAllErrors()) {
+      rejected(String.valueOf(error.getCode()));
+    }
+  }
+
+  public void rejected(String code) {
+    rejections.computeIfAbsent(code, key -> meterRegistry.counter("events.rejections", "code", key)).increment();
+  }
+}
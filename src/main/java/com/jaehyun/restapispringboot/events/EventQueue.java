@@ -0,0 +1,205 @@
+package com.jaehyun.restapispringboot.events;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 메모리 매핑한 append-only 파일 큐. 레코드는 [길이][CRC32][본문] 이고 길이가 0 이면 끝이다.
+ * 어디까지 DB 에 반영했는지는 별도의 checkpoint 파일에 offset 으로 남긴다.
+ *
+ * 시작할 때 checkpoint 부터 CRC 가 맞는 레코드까지를 다시 읽으므로 쓰다가 죽은 레코드는 버려진다.
+ * 반영한 위치가 쓴 위치를 따라잡으면 파일 처음으로 되감아서 공간을 재사용한다.
+ *
+ * DB 에 반영할 수 없는 레코드는 dead-letter 파일에 한 줄씩 옮겨 두고 checkpoint 를 넘긴다.
+ */
+public class EventQueue {
+
+  private static final int HEADER = Integer.BYTES * 2;
+
+  private final Path file;
+  private final Path checkpointFile;
+  private final Path deadLetterFile;
+  private final int capacity;
+  private final boolean syncOnAppend;
+  private FileChannel channel;
+  private FileChannel checkpointChannel;
+  private MappedByteBuffer buffer;
+  private int checkpoint;
+  private int writePosition;
+
+  public EventQueue(Path directory, int capacity, boolean syncOnAppend) {
+    this.file = directory.resolve("events.queue");
+    this.checkpointFile = directory.resolve("events.checkpoint");
+    this.deadLetterFile = directory.resolve("events.dead-letter");
+    this.capacity = capacity;
+    this.syncOnAppend = syncOnAppend;
+  }
+
+  public synchronized void open() throws IOException {
+    Files.createDirectories(file.getParent());
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    checkpointChannel = FileChannel.open(checkpointFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    ByteBuffer stored = ByteBuffer.allocate(Integer.BYTES);
+    checkpoint = checkpointChannel.read(stored, 0) == Integer.BYTES ? stored.flip().getInt() : 0;
+    if (checkpoint < 0 || checkpoint > capacity - HEADER) {
+      checkpoint = 0;
+    }
+
+    writePosition = checkpoint;
+    while (recordLength(writePosition) >= 0) {
+      writePosition += HEADER + recordLength(writePosition);
+    }
+  }
+
+  public synchronized void close() throws IOException {
+    if (buffer != null) {
+      buffer.force();
+    }
+    if (channel != null) {
+      channel.close();
+    }
+    if (checkpointChannel != null) {
+      checkpointChannel.close();
+    }
+  }
+
+  /**
+   * @return 공간이 부족하면 false
+   */
+  public synchronized boolean append(byte[] payload) {
+    int next = writePosition + HEADER + payload.length;
+    if (next + Integer.BYTES > capacity) {
+      return false;
+    }
+    // 다음 레코드 자리를 먼저 비워둬야 되감기 전에 쓴 레코드를 이어서 읽지 않는다
+    buffer.putInt(next, 0);
+    buffer.position(writePosition + HEADER);
+    buffer.put(payload);
+    buffer.putInt(writePosition + Integer.BYTES, crc(payload));
+    buffer.putInt(writePosition, payload.length);
+    if (syncOnAppend) {
+      buffer.force();
+    }
+    writePosition = next;
+    return true;
+  }
+
+  /**
+   * checkpoint 부터 최대 {@code max} 개를 읽는다. {@link #commit(int)} 하기 전까지는 같은 레코드를 다시 돌려준다.
+   */
+  public synchronized Batch read(int max) {
+    List<byte[]> payloads = new ArrayList<>();
+    int position = checkpoint;
+    while (payloads.size() < max && position < writePosition) {
+      int length = buffer.getInt(position);
+      byte[] payload = new byte[length];
+      buffer.position(position + HEADER);
+      buffer.get(payload);
+      payloads.add(payload);
+      position += HEADER + length;
+    }
+    return new Batch(payloads, position);
+  }
+
+  public synchronized void commit(int end) {
+    if (end == writePosition) {
+      // 모두 반영했으므로 처음으로 되감는다. 처음 자리를 먼저 비워야 중간에 죽어도 반영한 레코드를 다시 읽지 않는다
+      buffer.putInt(0, 0);
+      buffer.force();
+      writePosition = 0;
+      end = 0;
+    }
+    writeCheckpoint(end);
+    checkpoint = end;
+  }
+
+  /**
+   * 반영할 수 없는 레코드를 dead-letter 파일 끝에 붙인다. checkpoint 를 넘기기 전에 불러야 레코드를 잃지 않는다.
+   */
+  public synchronized void deadLetter(byte[] payload) {
+    try (FileChannel deadLetters = FileChannel.open(deadLetterFile,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+      deadLetters.write(ByteBuffer.allocate(payload.length + 1).put(payload).put((byte) '\n').flip());
+      deadLetters.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public synchronized List<byte[]> readDeadLetters() throws IOException {
+    List<byte[]> payloads = new ArrayList<>();
+    if (!Files.exists(deadLetterFile)) {
+      return payloads;
+    }
+    for (String line : Files.readAllLines(deadLetterFile, StandardCharsets.UTF_8)) {
+      if (!line.isEmpty()) {
+        payloads.add(line.getBytes(StandardCharsets.UTF_8));
+      }
+    }
+    return payloads;
+  }
+
+  public synchronized boolean isEmpty() {
+    return checkpoint == writePosition;
+  }
+
+  private void writeCheckpoint(int offset) {
+    try {
+      checkpointChannel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, offset), 0);
+      checkpointChannel.force(false);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // 온전한 레코드면 본문 길이, 아니면 -1
+  private int recordLength(int position) {
+    if (position + HEADER > capacity) {
+      return -1;
+    }
+    int length = buffer.getInt(position);
+    if (length <= 0 || position + HEADER + length + Integer.BYTES > capacity) {
+      return -1;
+    }
+    byte[] payload = new byte[length];
+    buffer.position(position + HEADER);
+    buffer.get(payload);
+    return crc(payload) == buffer.getInt(position + Integer.BYTES) ? length : -1;
+  }
+
+  private static int crc(byte[] payload) {
+    CRC32 crc = new CRC32();
+    crc.update(payload);
+    return (int) crc.getValue();
+  }
+
+  public static class Batch {
+    private final List<byte[]> payloads;
+    private final int end;
+
+    Batch(List<byte[]> payloads, int end) {
+      this.payloads = payloads;
+      this.end = end;
+    }
+
+    public List<byte[]> getPayloads() {
+      return payloads;
+    }
+
+    public int getEnd() {
+      return end;
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 이벤트 생성 요청을 거절하는 사유. code 와 기본 메시지는 bean validation 과 EventValidator 가 쓰는 것과 같다.
+ * 각 사유의 RFC 7807 응답 본문은 클래스를 읽을 때 한 번만 만들어둔다.
+ */
+public enum EventRejection {
+  NAME_EMPTY("name", "NotEmpty", "must not be empty"),
+  DESCRIPTION_EMPTY("description", "NotEmpty", "must not be empty"),
+  BEGIN_ENROLLMENT_NULL("beginEnrollmentDateTime", "NotNull", "must not be null"),
+  CLOSE_ENROLLMENT_NULL("closeEnrollmentDateTime", "NotNull", "must not be null"),
+  BEGIN_EVENT_NULL("beginEventDateTime", "NotNull", "must not be null"),
+  END_EVENT_NULL("endEventDateTime", "NotNull", "must not be null"),
+  BASE_PRICE_NEGATIVE("basePrice", "Min", "must be greater than or equal to 0"),
+  MAX_PRICE_NEGATIVE("maxPrice", "Min", "must be greater than or equal to 0"),
+  LIMIT_OF_ENROLLMENT_NEGATIVE("limitOfEnrollment", "Min", "must be greater than or equal to 0"),
+  WRONG_PRICES(null, "wrongPrices", "Values for prices are wrong"),
+  WRONG_END_EVENT("endEventDateTime", "wrongDValue", "endEventDateTime is wrong");
+
+  static final String TYPE = "/docs/index.html#overview-errors";
+
+  static {
+    ObjectMapper objectMapper = new ObjectMapper();
+    for (EventRejection rejection : values()) {
+      try {
+        rejection.problem = objectMapper.writeValueAsBytes(rejection.toProblem());
+      } catch (JsonProcessingException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
+  private final String field;
+  private final String code;
+  private final String defaultMessage;
+  private byte[] problem;
+
+  EventRejection(String field, String code, String defaultMessage) {
+    this.field = field;
+    this.code = code;
+    this.defaultMessage = defaultMessage;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  public String getCode() {
+    return code;
+  }
+
+  public String getDefaultMessage() {
+    return defaultMessage;
+  }
+
+  /**
+   * 미리 만들어둔 본문을 그대로 쓰는 400 응답. 배열을 복사하지 않으므로 본문을 바꾸면 안 된다.
+   */
+  public ResponseEntity<byte[]> toResponse() {
+    return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_PROBLEM_JSON).body(problem);
+  }
+
+  private Map<String, Object> toProblem() {
+    Map<String, Object> problem = new LinkedHashMap<>();
+    problem.put("type", TYPE);
+    problem.put("title", "Invalid event");
+    problem.put("status", 400);
+    problem.put("detail", field == null ? defaultMessage : field + " " + defaultMessage);
+    problem.put("objectName", "eventDto");
+    if (field != null) {
+      problem.put("field", field);
+    }
+    problem.put("code", code);
+    problem.put("defaultMessage", defaultMessage);
+    return problem;
+  }
+}
@@ -1,6 +1,49 @@
 package com.jaehyun.restapispringboot.events;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface EventRepository extends JpaRepository<Event, Integer> {
+import javax.persistence.QueryHint;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+public interface EventRepository extends JpaRepository<Event, Integer>, JpaSpecificationExecutor<Event>, EventRepositoryCustom {
+
+  /**
+   * 목록 조회 결과(id 목록과 count)를 query cache 에 둔다. event 테이블이 바뀌면 Hibernate 가 비운다.
+   */
+  @Override
+  @QueryHints(value = {
+          @QueryHint(name = HINT_CACHEABLE, value = "true"),
+          @QueryHint(name = HINT_CACHE_REGION, value = Event.QUERY_CACHE_REGION)
+  }, forCounting = true)
+  Page<Event> findAll(Specification<Event> spec, Pageable pageable);
+
+  @Query("select e.version from Event e where e.id = :id")
+  Optional<Long> findVersionById(@Param("id") Integer id);
+
+  /**
+   * 전체 이벤트를 id 순으로 읽는 forward-only 커서. 트랜잭션 안에서 사용하고 반드시 close 해야 한다.
+   * 한 번 읽고 마는 데이터로 2차 캐시를 채우지 않도록 캐시를 거치지 않는다.
+   */
+  @QueryHints({
+          @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+          @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+          @QueryHint(name = HINT_READONLY, value = "true"),
+          @QueryHint(name = HINT_CACHEABLE, value = "false")
+  })
+  @Query("select e from Event e order by e.id")
+  Stream<Event> streamAllBy();
 }
@@ -0,0 +1,38 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EventRepositoryCustom {
+
+  /**
+   * Keyset(seek) 페이징. {@code afterId} 보다 큰 id 를 가진 이벤트를 id 순으로 최대 {@code limit} 개 조회한다.
+   * OFFSET 을 쓰지 않으므로 페이지가 깊어져도 조회 비용이 일정하다.
+   */
+  List<Event> findAllAfter(Specification<Event> spec, int afterId, int limit);
+
+  /**
+   * 공개되어 모집 중인 상태(PUBLISHED, BEGAN_ENROLLMENT)이고 모집 기간 안이며 자리가 남아 있을 때만 참가 인원을 하나 늘린다. 조건 확인과 증가가 하나의 UPDATE 로
+   * 처리되므로 동시에 요청이 몰려도 limitOfEnrollment 를 넘지 않는다.
+   *
+   * @return 참가에 성공하면 1, 아니면 0
+   */
+  int enroll(Integer id, LocalDateTime now);
+
+  /**
+   * DRAFT 인 이벤트만 PUBLISHED 로 바꾼다. 이후 단계는 EventLifecycleScheduler 가 시각에 맞춰 옮긴다.
+   *
+   * @return 공개했으면 1, 없거나 이미 공개된 이벤트면 0
+   */
+  int publish(Integer id);
+
+  /**
+   * {@code from} 상태 중 {@code dateAttribute} 시각이 {@code now} 이전인 이벤트를 {@code to} 상태로 바꾼다.
+   *
+   * @return 상태를 바꾼 이벤트 id
+   */
+  List<Integer> transitionStatus(Collection<EventStatus> from, EventStatus to, String dateAttribute, LocalDateTime now);
+}
@@ -0,0 +1,151 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.query.NativeQuery;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+@Transactional(readOnly = true)
+public class EventRepositoryCustomImpl implements EventRepositoryCustom {
+
+  private static final String BULK_UPDATE_QUERY_SPACE = "event_bulk_update";
+  private static final int TRANSITION_BATCH_SIZE = 1000;
+  // 스케줄러가 BEGAN_ENROLLMENT 로 옮기기 전이라도 공개된 이벤트는 모집 기간 안이면 참가할 수 있다
+  private static final List<String> ENROLLABLE_STATUSES =
+          List.of(EventStatus.PUBLISHED.name(), EventStatus.BEGAN_ENROLLMENT.name());
+  private static final Map<String, String> DATE_COLUMNS = Map.of(
+          "beginEnrollmentDateTime", "begin_enrollment_date_time",
+          "closeEnrollmentDateTime", "close_enrollment_date_time",
+          "beginEventDateTime", "begin_event_date_time",
+          "endEventDateTime", "end_event_date_time");
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public List<Event> findAllAfter(Specification<Event> spec, int afterId, int limit) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<Event> query = cb.createQuery(Event.class);
+    Root<Event> root = query.from(Event.class);
+
+    Predicate predicate = cb.greaterThan(root.get("id"), afterId);
+    if (spec != null) {
+      Predicate filter = spec.toPredicate(root, query, cb);
+      if (filter != null) {
+        predicate = cb.and(predicate, filter);
+      }
+    }
+    query.select(root).where(predicate).orderBy(cb.asc(root.get("id")));
+
+    return entityManager.createQuery(query)
+            .setHint(HINT_CACHEABLE, true)
+            .setHint(HINT_CACHE_REGION, Event.QUERY_CACHE_REGION)
+            .setMaxResults(limit)
+            .getResultList();
+  }
+
+  @Override
+  @Transactional
+  public int enroll(Integer id, LocalDateTime now) {
+    int updated = executeUpdate(entityManager.createNativeQuery("update event "
+            + "set number_of_enrollments = number_of_enrollments + 1, version = version + 1 "
+            + "where id = :id and event_status in (:statuses) "
+            + "and (limit_of_enrollment = 0 or number_of_enrollments < limit_of_enrollment) "
+            + "and begin_enrollment_date_time <= :now and close_enrollment_date_time > :now")
+            .setParameter("id", id)
+            .setParameter("statuses", ENROLLABLE_STATUSES)
+            .setParameter("now", now));
+    // 참가 인원은 목록 조회 조건에 없으므로 query cache 는 그대로 두고 이 이벤트만 비운다
+    evictAfterCommit(updated == 1 ? List.of(id) : List.of(), false);
+    return updated;
+  }
+
+  @Override
+  @Transactional
+  public int publish(Integer id) {
+    int updated = executeUpdate(entityManager.createNativeQuery("update event "
+            + "set event_status = :to, version = version + 1 "
+            + "where id = :id and event_status = :from")
+            .setParameter("id", id)
+            .setParameter("from", EventStatus.DRAFT.name())
+            .setParameter("to", EventStatus.PUBLISHED.name()));
+    evictAfterCommit(updated == 1 ? List.of(id) : List.of(), true);
+    return updated;
+  }
+
+  @Override
+  @Transactional
+  @SuppressWarnings("unchecked")
+  public List<Integer> transitionStatus(Collection<EventStatus> from, EventStatus to, String dateAttribute,
+                                        LocalDateTime now) {
+    String dateColumn = DATE_COLUMNS.get(dateAttribute);
+    if (dateColumn == null) {
+      throw new IllegalArgumentException("Unknown date attribute: " + dateAttribute);
+    }
+    List<String> fromNames = from.stream().map(EventStatus::name).collect(Collectors.toList());
+    // 비울 이벤트를 알아야 하므로 (eventStatus, 날짜) 인덱스로 대상 id 를 먼저 읽고, 같은 조건을 붙여서 바꾼다
+    List<Integer> ids = ((List<Number>) entityManager.createNativeQuery("select id from event "
+            + "where event_status in (:from) and " + dateColumn + " <= :now")
+            .setParameter("from", fromNames)
+            .setParameter("now", now)
+            .getResultList())
+            .stream().map(Number::intValue).collect(Collectors.toList());
+
+    for (int i = 0; i < ids.size(); i += TRANSITION_BATCH_SIZE) {
+      executeUpdate(entityManager.createNativeQuery("update event set event_status = :to, version = version + 1 "
+              + "where id in (:ids) and event_status in (:from) and " + dateColumn + " <= :now")
+              .setParameter("ids", ids.subList(i, Math.min(i + TRANSITION_BATCH_SIZE, ids.size())))
+              .setParameter("from", fromNames)
+              .setParameter("to", to.name())
+              .setParameter("now", now));
+    }
+    evictAfterCommit(ids, true);
+    return ids;
+  }
+
+  /**
+   * JPQL 이나 Criteria 로 bulk UPDATE 를 하면 Hibernate 가 event 2차 캐시 region 전체와 event 테이블의 query cache 를 비운다.
+   * 참가 신청이 몰릴 때마다 캐시가 통째로 사라지지 않도록 어떤 엔티티와도 겹치지 않는 query space 로 native UPDATE 를 하고,
+   * 바뀐 이벤트만 직접 비운다.
+   */
+  private int executeUpdate(Query query) {
+    return query.unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace(BULK_UPDATE_QUERY_SPACE)
+            .executeUpdate();
+  }
+
+  // 커밋 전에 비우면 다른 트랜잭션이 아직 커밋 전의 값을 다시 캐시에 넣을 수 있다
+  private void evictAfterCommit(List<Integer> ids, boolean queryResultsChanged) {
+    if (ids.isEmpty()) {
+      return;
+    }
+    org.hibernate.Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        ids.forEach(id -> cache.evictEntityData(Event.class, id));
+        if (queryResultsChanged) {
+          cache.evictQueryRegion(Event.QUERY_CACHE_REGION);
+        }
+      }
+    });
+  }
+}
@@ -1,16 +1,16 @@
 package com.jaehyun.restapispringboot.events;
 
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.RepresentationModel;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-
-public class EventResource extends RepresentationModel {
+public class EventResource extends RepresentationModel<EventResource> {
   @JsonUnwrapped
   private  Event event;
 
-  public EventResource(Event event) {
-    add(linkTo(EventController.class).slash(event.getId()).withSelfRel());
+  // self 링크는 EventLinks (WebFlux 에서는 요청 URI)로 만들어서 넘긴다
+  public EventResource(Event event, Link selfLink) {
+    add(selfLink);
     this.event = event;
   }
 
@@ -0,0 +1,38 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Event 를 self 링크가 붙은 EventResource 로 만든다. 목록은 base URI 를 한 번만 읽어서 모든 항목이 같이 쓴다.
+ */
+@Component
+public class EventResourceAssembler implements RepresentationModelAssembler<Event, EventResource> {
+
+  private final EventLinks eventLinks;
+
+  public EventResourceAssembler(EventLinks eventLinks) {
+    this.eventLinks = eventLinks;
+  }
+
+  @Override
+  public EventResource toModel(Event event) {
+    return new EventResource(event, eventLinks.self(event.getId()));
+  }
+
+  @Override
+  public CollectionModel<EventResource> toCollectionModel(Iterable<? extends Event> events) {
+    String eventsHref = eventLinks.eventsHref();
+    List<EventResource> content = new ArrayList<>();
+    for (Event event : events) {
+      content.add(new EventResource(event, new Link(EventLinks.eventHref(eventsHref, event.getId()), IanaLinkRelations.SELF)));
+    }
+    return new CollectionModel<>(content);
+  }
+}
@@ -0,0 +1,42 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * name, location, description 에 대한 키워드 검색. 결과는 관련도 순이고 pageable 의 sort 는 무시한다.
+ * 검색어의 모든 단어가 들어있는 이벤트만 찾는다.
+ */
+public interface EventSearch {
+
+  Page<Event> search(String query, Pageable pageable);
+
+  /**
+   * 이벤트가 저장된 뒤에 호출된다. 데이터베이스가 직접 색인을 관리하면 아무것도 하지 않는다.
+   */
+  void index(Event event);
+
+  void remove(Integer id);
+
+  /**
+   * 검색 결과 순서대로 이벤트를 읽는다. 그 사이에 삭제된 이벤트는 빠진다.
+   */
+  static List<Event> findAllInOrder(EventRepository eventRepository, List<Integer> ids) {
+    Map<Integer, Event> events = eventRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Event::getId, Function.identity()));
+    List<Event> ordered = new ArrayList<>(ids.size());
+    for (Integer id : ids) {
+      Event event = events.get(id);
+      if (event != null) {
+        ordered.add(event);
+      }
+    }
+    return ordered;
+  }
+}
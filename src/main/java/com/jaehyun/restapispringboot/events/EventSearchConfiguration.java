@@ -0,0 +1,27 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * PostgreSQL 이면 tsvector + GIN 인덱스로, 그 외(H2 등)에는 메모리 역색인으로 검색한다.
+ * PostgreSQL 은 db/postgres/event-search.sql 로 컬럼과 인덱스를 미리 만들어 두어야 한다.
+ */
+@Configuration
+public class EventSearchConfiguration {
+
+  @Bean(initMethod = "initialize")
+  public EventSearch eventSearch(JdbcTemplate jdbcTemplate, EventRepository eventRepository) {
+    if (isPostgres(jdbcTemplate)) {
+      return new PostgresEventSearch(jdbcTemplate, eventRepository);
+    }
+    return new InMemoryEventSearch(jdbcTemplate, eventRepository);
+  }
+
+  private boolean isPostgres(JdbcTemplate jdbcTemplate) {
+    return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+  }
+}
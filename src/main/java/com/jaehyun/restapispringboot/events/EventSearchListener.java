@@ -0,0 +1,49 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 생성, 수정(batch 포함), 삭제된 이벤트를 커밋 후에 검색 색인에 반영한다.
+ * EventSearch 가 EventRepository 를 쓰므로 순환 참조를 피하려고 ObjectProvider 로 늦게 가져온다.
+ */
+@Component
+public class EventSearchListener {
+
+  private final ObjectProvider<EventSearch> eventSearch;
+
+  public EventSearchListener(ObjectProvider<EventSearch> eventSearch) {
+    this.eventSearch = eventSearch;
+  }
+
+  @PostPersist
+  @PostUpdate
+  public void index(Event event) {
+    afterCommit(() -> eventSearch.ifAvailable(search -> search.index(event)));
+  }
+
+  @PostRemove
+  public void remove(Event event) {
+    Integer id = event.getId();
+    afterCommit(() -> eventSearch.ifAvailable(search -> search.remove(id)));
+  }
+
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+}
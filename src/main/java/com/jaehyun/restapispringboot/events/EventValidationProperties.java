@@ -0,0 +1,17 @@
+package com.jaehyun.restapispringboot.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("events.validation")
+public class EventValidationProperties {
+
+  /**
+   * FULL: bean validation 과 EventValidator 를 모두 돌리고 모든 오류를 배열로 돌려준다.
+   * FAIL_FAST: 구조 검사에서 처음 걸린 규칙 하나만 미리 만들어둔 application/problem+json 으로 돌려준다.
+   */
+  public enum Mode { FULL, FAIL_FAST }
+
+  private Mode mode = Mode.FULL;
+}
@@ -4,20 +4,93 @@ import org.springframework.stereotype.Component;
 import org.springframework.validation.Errors;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Set;
 
 @Component
 public class EventValidator {
 
+  static final Set<String> PRICE_FIELDS = Set.of("basePrice", "maxPrice");
+  static final Set<String> DATE_FIELDS = Set.of("beginEnrollmentDateTime", "closeEnrollmentDateTime",
+          "beginEventDateTime", "endEventDateTime");
+
   public void validate(EventDto eventDto, Errors errors) {
+    validatePrices(eventDto, errors);
+    validateDates(eventDto, errors);
+  }
+
+  /**
+   * 부분 수정에서 바뀐 필드가 걸린 규칙만 검사한다. 나머지 필드는 이미 검증을 통과해서 저장된 값이다.
+   */
+  public void validate(EventDto eventDto, Set<String> changedFields, Errors errors) {
+    if (!Collections.disjoint(changedFields, PRICE_FIELDS)) {
+      validatePrices(eventDto, errors);
+    }
+    if (!Collections.disjoint(changedFields, DATE_FIELDS)) {
+      validateDates(eventDto, errors);
+    }
+  }
+
+  private void validatePrices(EventDto eventDto, Errors errors) {
     if (eventDto.getBasePrice() > eventDto.getMaxPrice() && eventDto.getMaxPrice() != 0) {
       errors.reject("wrongPrices", "Values for prices are wrong");
     }
+  }
+
+  private void validateDates(EventDto eventDto, Errors errors) {
     LocalDateTime endEventDateTime = eventDto.getEndEventDateTime();
     if (endEventDateTime.isBefore(eventDto.getBeginEventDateTime()) ||
             endEventDateTime.isBefore(eventDto.getCloseEnrollmentDateTime()) ||
             endEventDateTime.isBefore(eventDto.getBeginEnrollmentDateTime())) {
       errors.rejectValue("endEventDateTime","wrongDValue","endEventDateTime is wrong");
     }
+  }
+
+  /**
+   * EventDto 의 제약 조건과 validate 의 규칙을 싼 것부터 검사해서 처음 걸린 사유를 돌려준다. 모두 통과하면 null.
+   * 오류 객체를 만들지 않으므로 잘못된 요청이 몰릴 때 거절 비용이 작다.
+   */
+  public EventRejection firstRejection(EventDto eventDto) {
+    if (eventDto.getBasePrice() < 0) {
+      return EventRejection.BASE_PRICE_NEGATIVE;
+    }
+    if (eventDto.getMaxPrice() < 0) {
+      return EventRejection.MAX_PRICE_NEGATIVE;
+    }
+    if (eventDto.getLimitOfEnrollment() < 0) {
+      return EventRejection.LIMIT_OF_ENROLLMENT_NEGATIVE;
+    }
+    if (isEmpty(eventDto.getName())) {
+      return EventRejection.NAME_EMPTY;
+    }
+    if (isEmpty(eventDto.getDescription())) {
+      return EventRejection.DESCRIPTION_EMPTY;
+    }
+    if (eventDto.getBeginEnrollmentDateTime() == null) {
+      return EventRejection.BEGIN_ENROLLMENT_NULL;
+    }
+    if (eventDto.getCloseEnrollmentDateTime() == null) {
+      return EventRejection.CLOSE_ENROLLMENT_NULL;
+    }
+    if (eventDto.getBeginEventDateTime() == null) {
+      return EventRejection.BEGIN_EVENT_NULL;
+    }
+    if (eventDto.getEndEventDateTime() == null) {
+      return EventRejection.END_EVENT_NULL;
+    }
+    if (eventDto.getBasePrice() > eventDto.getMaxPrice() && eventDto.getMaxPrice() != 0) {
+      return EventRejection.WRONG_PRICES;
+    }
+    LocalDateTime endEventDateTime = eventDto.getEndEventDateTime();
+    if (endEventDateTime.isBefore(eventDto.getBeginEventDateTime()) ||
+            endEventDateTime.isBefore(eventDto.getCloseEnrollmentDateTime()) ||
+            endEventDateTime.isBefore(eventDto.getBeginEnrollmentDateTime())) {
+      return EventRejection.WRONG_END_EVENT;
+    }
+    return null;
+  }
 
+  private static boolean isEmpty(String value) {
+    return value == null || value.isEmpty();
   }
 }
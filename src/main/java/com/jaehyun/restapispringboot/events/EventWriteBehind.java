@@ -0,0 +1,325 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이벤트 생성을 큐에 쌓아두고 나중에 DB 에 반영하는 write-behind 모드. 요청 스레드는 id 를 받아서 EventQueue 에
+ * 추가한 뒤 바로 응답하고, drain 이 주기적으로 큐를 읽어 batch insert 한다.
+ *
+ * 큐는 DB 반영이 끝난 뒤에 checkpoint 를 옮기므로 반영 도중에 죽으면 같은 이벤트를 다시 읽는다.
+ * 그래서 이미 있는 id 는 건너뛰고 없는 것만 insert 한다.
+ *
+ * 제약 조건에 걸려서 넣을 수 없는 이벤트와 배포 사이에 EventDto 가 바뀌어 읽을 수 없게 된 기록은 dead-letter 로
+ * 옮기고 FAILED 로 알려준다. 그 밖의 DB 오류는 다음 drain 에서 같은 batch 부터 다시 시도하는데, 이때 dead-letter 가
+ * 중복되지 않도록 dead-letter 는 batch 가 끝까지 반영된 뒤 checkpoint 를 옮기기 직전에 쓴다.
+ * drain 은 다른 @Scheduled 작업을 막지 않도록 전용 스레드에서 돈다.
+ */
+public class EventWriteBehind {
+
+  private static final Logger log = LoggerFactory.getLogger(EventWriteBehind.class);
+
+  private static final String INSERT = "insert into event (id, name, description, begin_enrollment_date_time, "
+          + "close_enrollment_date_time, begin_event_date_time, end_event_date_time, location, base_price, max_price, "
+          + "limit_of_enrollment, number_of_enrollments, offline, free, event_status, version) "
+          + "values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, ?, 0)";
+
+  private final EventQueue queue;
+  private final EventIdAllocator idAllocator;
+  private final EventMapper eventMapper;
+  private final EventRepository eventRepository;
+  private final EventSearch eventSearch;
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final EntityManagerFactory entityManagerFactory;
+  private final ObjectWriter writer;
+  // 큐에는 이전 배포가 쓴 기록이 남아 있을 수 있으므로 앱 ObjectMapper 와 달리 모르는 필드를 무시한다
+  private final ObjectReader reader;
+  private final int batchSize;
+  private final int maxBatchesPerDrain;
+  // 큐에 있지만 아직 DB 에 없는 id
+  private final Set<Integer> pending = ConcurrentHashMap.newKeySet();
+  // dead-letter 로 옮긴 id
+  private final Set<Integer> failed = ConcurrentHashMap.newKeySet();
+  private ScheduledExecutorService executor;
+
+  public EventWriteBehind(EventQueue queue, EventIdAllocator idAllocator, EventMapper eventMapper,
+                          EventRepository eventRepository, EventSearch eventSearch,
+                          JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                          EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper, int batchSize,
+                          int maxBatchesPerDrain) {
+    this.queue = queue;
+    this.idAllocator = idAllocator;
+    this.eventMapper = eventMapper;
+    this.eventRepository = eventRepository;
+    this.eventSearch = eventSearch;
+    this.jdbcTemplate = jdbcTemplate;
+    this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    this.transactionTemplate = transactionTemplate;
+    this.entityManagerFactory = entityManagerFactory;
+    this.writer = objectMapper.writerFor(QueuedEvent.class);
+    this.reader = objectMapper.readerFor(QueuedEvent.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    this.batchSize = batchSize;
+    this.maxBatchesPerDrain = maxBatchesPerDrain;
+  }
+
+  /**
+   * 지난번에 DB 에 반영하지 못하고 남은 이벤트를 pending 으로 되살린다. 실제 반영은 다음 drain 에서 한다.
+   */
+  public void replay() throws IOException {
+    EventQueue.Batch batch = queue.read(Integer.MAX_VALUE);
+    for (byte[] payload : batch.getPayloads()) {
+      // 읽을 수 없는 기록도 drain 이 dead-letter 로 옮길 때까지는 QUEUED 로 보인다
+      idOf(payload).ifPresent(pending::add);
+    }
+    for (byte[] payload : queue.readDeadLetters()) {
+      idOf(payload).ifPresent(failed::add);
+    }
+  }
+
+  public synchronized void start(Duration drainInterval) {
+    executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "write-behind-drain");
+      thread.setDaemon(true);
+      return thread;
+    });
+    long interval = drainInterval.toMillis();
+    executor.scheduleWithFixedDelay(this::drainQuietly, interval, interval, TimeUnit.MILLISECONDS);
+  }
+
+  // 큐 파일을 닫기 전에 진행 중인 drain 이 끝나기를 기다린다
+  public void stop() throws InterruptedException {
+    if (executor != null) {
+      executor.shutdown();
+      executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * 검증이 끝난 이벤트를 큐에 넣는다.
+   *
+   * @return 받은 id. 큐가 가득 차서 넣지 못했으면 empty
+   */
+  public Optional<Integer> enqueue(EventDto eventDto) {
+    int id = idAllocator.next();
+    byte[] payload;
+    try {
+      payload = writer.writeValueAsBytes(new QueuedEvent(id, eventDto));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    pending.add(id);
+    if (!queue.append(payload)) {
+      pending.remove(id);
+      return Optional.empty();
+    }
+    return Optional.of(id);
+  }
+
+  public Optional<EventWriteStatus.State> status(Integer id) {
+    if (pending.contains(id)) {
+      return Optional.of(EventWriteStatus.State.QUEUED);
+    }
+    if (failed.contains(id)) {
+      return Optional.of(EventWriteStatus.State.FAILED);
+    }
+    return eventRepository.existsById(id) ? Optional.of(EventWriteStatus.State.PERSISTED) : Optional.empty();
+  }
+
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  public int getFailedCount() {
+    return failed.size();
+  }
+
+  // 예외가 밖으로 나가면 ScheduledExecutorService 가 이후 실행을 취소한다
+  private void drainQuietly() {
+    try {
+      drain();
+    } catch (RuntimeException e) {
+      log.warn("Failed to drain write-behind queue, will retry", e);
+    }
+  }
+
+  /**
+   * 큐를 batch 단위로 최대 maxBatchesPerDrain 번 반영한다. 남은 것은 다음 drain 에서 이어서 한다.
+   *
+   * @return 이번에 새로 insert 한 이벤트 수
+   */
+  public synchronized int drain() {
+    int inserted = 0;
+    for (int i = 0; i < maxBatchesPerDrain; i++) {
+      EventQueue.Batch batch = queue.read(batchSize);
+      if (batch.getPayloads().isEmpty()) {
+        break;
+      }
+      Map<Event, byte[]> events = new LinkedHashMap<>();
+      List<byte[]> deadLetters = new ArrayList<>();
+      for (byte[] payload : batch.getPayloads()) {
+        Optional<Event> event = toEvent(payload);
+        if (event.isPresent()) {
+          events.put(event.get(), payload);
+        } else {
+          deadLetters.add(payload);
+        }
+      }
+
+      List<Event> created = List.of();
+      if (!events.isEmpty()) {
+        try {
+          created = transactionTemplate.execute(status -> insertMissing(events.keySet()));
+        } catch (DataIntegrityViolationException e) {
+          // 한 건 때문에 batch 전체가 롤백됐으므로 한 건씩 다시 넣고 넣을 수 없는 것만 dead-letter 로 옮긴다
+          created = insertEach(events, deadLetters);
+        }
+      }
+      for (byte[] payload : deadLetters) {
+        deadLetter(payload);
+      }
+      queue.commit(batch.getEnd());
+      afterInsert(created);
+      for (Event event : events.keySet()) {
+        pending.remove(event.getId());
+      }
+      inserted += created.size();
+    }
+    return inserted;
+  }
+
+  // 넣을 수 없는 것은 deadLetters 에 모으기만 한다. 도중에 다른 DB 오류가 나면 batch 를 처음부터 다시 시도한다
+  private List<Event> insertEach(Map<Event, byte[]> events, List<byte[]> deadLetters) {
+    List<Event> created = new ArrayList<>(events.size());
+    events.forEach((event, payload) -> {
+      try {
+        created.addAll(transactionTemplate.execute(status -> insertMissing(List.of(event))));
+      } catch (DataIntegrityViolationException e) {
+        log.warn("Moving event {} to the dead-letter file: {}", event.getId(), e.getMostSpecificCause().getMessage());
+        deadLetters.add(payload);
+      }
+    });
+    return created;
+  }
+
+  private List<Event> insertMissing(Collection<Event> events) {
+    List<Integer> ids = new ArrayList<>(events.size());
+    for (Event event : events) {
+      ids.add(event.getId());
+    }
+    Set<Integer> existing = new HashSet<>(namedParameterJdbcTemplate.queryForList(
+            "select id from event where id in (:ids)", Map.of("ids", ids), Integer.class));
+
+    List<Event> missing = new ArrayList<>(events.size());
+    List<Object[]> rows = new ArrayList<>(events.size());
+    for (Event event : events) {
+      if (existing.add(event.getId())) {
+        missing.add(event);
+        rows.add(toRow(event));
+      }
+    }
+    jdbcTemplate.batchUpdate(INSERT, rows);
+    return missing;
+  }
+
+  private Object[] toRow(Event event) {
+    return new Object[]{event.getId(), event.getName(), event.getDescription(),
+            Timestamp.valueOf(event.getBeginEnrollmentDateTime()), Timestamp.valueOf(event.getCloseEnrollmentDateTime()),
+            Timestamp.valueOf(event.getBeginEventDateTime()), Timestamp.valueOf(event.getEndEventDateTime()),
+            event.getLocation(), event.getBasePrice(), event.getMaxPrice(), event.getLimitOfEnrollment(),
+            event.isOffline(), event.isFree(), event.getEventStatus().name()};
+  }
+
+  // JPA 를 거치지 않았으므로 EventSearchListener 와 Hibernate 가 하던 일을 직접 한다
+  private void afterInsert(List<Event> created) {
+    if (created.isEmpty()) {
+      return;
+    }
+    for (Event event : created) {
+      eventSearch.index(event);
+    }
+    // 큐에 있는 동안 조회해서 캐시된 목록 조회 결과를 버린다
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+  }
+
+  /**
+   * 큐 기록을 insert 할 이벤트로 바꾼다. 필수 값이 빠져서 행으로 만들 수 없는 것도 읽을 수 없는 기록으로 본다.
+   *
+   * @return 읽을 수 없는 기록이면 empty
+   */
+  private Optional<Event> toEvent(byte[] payload) {
+    try {
+      QueuedEvent queued = reader.readValue(payload);
+      if (queued.getId() == null || queued.getEvent() == null) {
+        throw new IllegalArgumentException("missing id or event");
+      }
+      Event event = eventMapper.toEvent(queued.getEvent());
+      event.setId(queued.getId());
+      event.update();
+      toRow(event);
+      return Optional.of(event);
+    } catch (IOException | RuntimeException e) {
+      log.warn("Moving unreadable write-behind record {} to the dead-letter file: {}",
+              idOf(payload).map(String::valueOf).orElse("?"), e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  private void deadLetter(byte[] payload) {
+    queue.deadLetter(payload);
+    idOf(payload).ifPresent(id -> {
+      failed.add(id);
+      pending.remove(id);
+    });
+  }
+
+  // EventDto 를 읽을 수 없어도 id 만 남아 있으면 상태 조회에 FAILED 로 알려줄 수 있다
+  private Optional<Integer> idOf(byte[] payload) {
+    try {
+      JsonNode id = reader.readTree(new String(payload, StandardCharsets.UTF_8)).path("id");
+      return id.canConvertToInt() ? Optional.of(id.intValue()) : Optional.empty();
+    } catch (IOException | RuntimeException e) {
+      return Optional.empty();
+    }
+  }
+
+  @Data @NoArgsConstructor @AllArgsConstructor
+  static class QueuedEvent {
+    private Integer id;
+    private EventDto event;
+  }
+}
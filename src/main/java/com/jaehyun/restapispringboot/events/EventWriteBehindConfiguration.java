@@ -0,0 +1,57 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@ConditionalOnProperty(name = "events.write-behind.enabled", havingValue = "true")
+@EnableConfigurationProperties(EventWriteBehindProperties.class)
+public class EventWriteBehindConfiguration {
+
+  public static final String PENDING = "events.write-behind.pending";
+  public static final String FAILED = "events.write-behind.failed";
+
+  @Bean(initMethod = "open", destroyMethod = "close")
+  public EventQueue eventQueue(EventWriteBehindProperties properties) {
+    return new EventQueue(properties.getDirectory(), (int) properties.getCapacity().toBytes(),
+            properties.isSyncOnAppend());
+  }
+
+  @Bean(initMethod = "replay", destroyMethod = "stop")
+  @Lazy(false)
+  public EventWriteBehind eventWriteBehind(EventQueue eventQueue, EventMapper eventMapper,
+                                           EventRepository eventRepository, EventSearch eventSearch,
+                                           JdbcTemplate jdbcTemplate,
+                                           TransactionTemplate transactionTemplate,
+                                           EntityManagerFactory entityManagerFactory, ObjectMapper objectMapper,
+                                           EventWriteBehindProperties properties) {
+    EventWriteBehind eventWriteBehind = new EventWriteBehind(eventQueue,
+            new EventIdAllocator(entityManagerFactory, properties.getIdBlockSize()),
+            eventMapper, eventRepository, eventSearch, jdbcTemplate, transactionTemplate,
+            entityManagerFactory, objectMapper, properties.getBatchSize(), properties.getMaxBatchesPerDrain());
+    eventWriteBehind.start(properties.getDrainInterval());
+    return eventWriteBehind;
+  }
+
+  @Bean
+  public MeterBinder eventWriteBehindMetrics(EventWriteBehind eventWriteBehind) {
+    return registry -> {
+      Gauge.builder(PENDING, eventWriteBehind, EventWriteBehind::getPendingCount)
+              .description("Accepted events not yet written to the database")
+              .register(registry);
+      Gauge.builder(FAILED, eventWriteBehind, EventWriteBehind::getFailedCount)
+              .description("Accepted events moved to the dead-letter file")
+              .register(registry);
+    };
+  }
+}
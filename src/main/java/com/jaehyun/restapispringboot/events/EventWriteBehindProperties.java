@@ -0,0 +1,29 @@
+package com.jaehyun.restapispringboot.events;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("events.write-behind")
+public class EventWriteBehindProperties {
+
+  private boolean enabled = false;
+  // 큐 파일과 checkpoint 파일을 두는 디렉터리. 노드마다 따로 써야 한다
+  private Path directory = Paths.get("write-behind");
+  // 큐 파일 크기. 가득 차면 DB 반영이 따라잡을 때까지 동기로 저장한다
+  private DataSize capacity = DataSize.ofMegabytes(64);
+  // 202 를 응답하기 전에 큐 파일을 디스크에 내려쓴다. 끄면 OS 가 죽을 때 받은 이벤트를 잃을 수 있다
+  private boolean syncOnAppend = true;
+  // 한 트랜잭션에서 insert 하는 최대 이벤트 수
+  private int batchSize = 500;
+  // drain 한 번에 반영하는 최대 batch 수. 남은 것은 다음 drain 으로 넘긴다
+  private int maxBatchesPerDrain = 10;
+  private Duration drainInterval = Duration.ofMillis(200);
+  // 한 번에 미리 받아두는 id 수
+  private int idBlockSize = 500;
+}
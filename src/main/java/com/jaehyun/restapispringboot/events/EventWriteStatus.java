@@ -0,0 +1,22 @@
+package com.jaehyun.restapispringboot.events;
+
+import lombok.Getter;
+import org.springframework.hateoas.RepresentationModel;
+
+/**
+ * write-behind 모드로 받은 이벤트가 DB 에 반영됐는지. PERSISTED 가 되면 event 링크로 조회할 수 있다.
+ * FAILED 는 DB 제약 조건에 걸려 저장하지 못하고 dead-letter 파일로 옮긴 이벤트다.
+ */
+@Getter
+public class EventWriteStatus extends RepresentationModel<EventWriteStatus> {
+
+  public enum State { QUEUED, PERSISTED, FAILED }
+
+  private final Integer id;
+  private final State state;
+
+  public EventWriteStatus(Integer id, State state) {
+    this.id = id;
+    this.state = state;
+  }
+}
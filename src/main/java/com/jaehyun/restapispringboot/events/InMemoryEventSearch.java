@@ -0,0 +1,159 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * H2 처럼 전문 검색이 없는 데이터베이스에서 쓰는 역색인. 단어마다 그 단어가 들어있는 이벤트 id 와 점수를 갖고 있어서
+ * 검색 시간이 전체 이벤트 수가 아니라 일치하는 이벤트 수에 비례한다.
+ * 색인은 이 인스턴스의 메모리에만 있으므로 여러 인스턴스를 띄우는 환경에서는 PostgreSQL 을 써야 한다.
+ *
+ * 단어 분리와 가중치는 PostgresEventSearch 의 'simple' 설정과 setweight 를 따른다.
+ *
+ * 시작할 때 검색에 쓰는 컬럼만 id 순으로 나눠 읽으므로 엔티티나 영속성 컨텍스트에 전체 테이블을 올리지 않는다.
+ */
+public class InMemoryEventSearch implements EventSearch {
+
+  // ts_rank 의 기본 가중치 {D, C, B, A} = {0.1, 0.2, 0.4, 1.0}
+  private static final float NAME_WEIGHT = 1.0f;
+  private static final float LOCATION_WEIGHT = 0.4f;
+  private static final float DESCRIPTION_WEIGHT = 0.2f;
+  private static final int INITIALIZE_BATCH_SIZE = 1000;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EventRepository eventRepository;
+  private final Map<String, Map<Integer, Float>> postings = new ConcurrentHashMap<>();
+  private final Map<Integer, Set<String>> termsById = new ConcurrentHashMap<>();
+
+  public InMemoryEventSearch(JdbcTemplate jdbcTemplate, EventRepository eventRepository) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventRepository = eventRepository;
+  }
+
+  public void initialize() {
+    int afterId = Integer.MIN_VALUE;
+    while (true) {
+      List<Event> events = jdbcTemplate.query("select id, name, location, description from event "
+                      + "where id > ? order by id limit ?",
+              (rs, rowNum) -> Event.builder()
+                      .id(rs.getInt("id"))
+                      .name(rs.getString("name"))
+                      .location(rs.getString("location"))
+                      .description(rs.getString("description"))
+                      .build(),
+              afterId, INITIALIZE_BATCH_SIZE);
+      events.forEach(this::index);
+      if (events.size() < INITIALIZE_BATCH_SIZE) {
+        return;
+      }
+      afterId = events.get(events.size() - 1).getId();
+    }
+  }
+
+  @Override
+  public Page<Event> search(String query, Pageable pageable) {
+    List<Map<Integer, Float>> matches = new ArrayList<>();
+    for (String term : tokenize(query)) {
+      Map<Integer, Float> posting = postings.get(term);
+      if (posting == null) {
+        return new PageImpl<>(List.of(), pageable, 0);
+      }
+      matches.add(posting);
+    }
+    if (matches.isEmpty()) {
+      return new PageImpl<>(List.of(), pageable, 0);
+    }
+
+    // 가장 짧은 목록을 기준으로 나머지 단어가 모두 있는 이벤트만 남긴다
+    matches.sort(Comparator.comparingInt(Map::size));
+    List<Map.Entry<Integer, Float>> ranked = new ArrayList<>();
+    for (Integer id : matches.get(0).keySet()) {
+      float score = 0;
+      for (Map<Integer, Float> posting : matches) {
+        Float termScore = posting.get(id);
+        if (termScore == null) {
+          score = -1;
+          break;
+        }
+        score += termScore;
+      }
+      if (score >= 0) {
+        ranked.add(Map.entry(id, score));
+      }
+    }
+    ranked.sort(Map.Entry.<Integer, Float>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+    int from = (int) Math.min(pageable.getOffset(), ranked.size());
+    int to = Math.min(from + pageable.getPageSize(), ranked.size());
+    List<Integer> ids = new ArrayList<>(to - from);
+    for (Map.Entry<Integer, Float> entry : ranked.subList(from, to)) {
+      ids.add(entry.getKey());
+    }
+    return new PageImpl<>(EventSearch.findAllInOrder(eventRepository, ids), pageable, ranked.size());
+  }
+
+  @Override
+  public synchronized void index(Event event) {
+    remove(event.getId());
+
+    Map<String, Float> scores = new HashMap<>();
+    addTerms(scores, event.getName(), NAME_WEIGHT);
+    addTerms(scores, event.getLocation(), LOCATION_WEIGHT);
+    addTerms(scores, event.getDescription(), DESCRIPTION_WEIGHT);
+    scores.forEach((term, score) ->
+            postings.computeIfAbsent(term, key -> new ConcurrentHashMap<>()).put(event.getId(), score));
+    termsById.put(event.getId(), scores.keySet());
+  }
+
+  @Override
+  public synchronized void remove(Integer id) {
+    Set<String> terms = termsById.remove(id);
+    if (terms == null) {
+      return;
+    }
+    for (String term : terms) {
+      postings.computeIfPresent(term, (key, posting) -> {
+        posting.remove(id);
+        return posting.isEmpty() ? null : posting;
+      });
+    }
+  }
+
+  private void addTerms(Map<String, Float> scores, String text, float weight) {
+    for (String term : tokenize(text)) {
+      scores.merge(term, weight, Float::sum);
+    }
+  }
+
+  /**
+   * 글자와 숫자가 아닌 문자로 나누고 소문자로 바꾼다. 한글은 한 어절이 한 단어가 된다.
+   */
+  static Set<String> tokenize(String text) {
+    Set<String> terms = new LinkedHashSet<>();
+    if (text == null) {
+      return terms;
+    }
+    int start = -1;
+    for (int i = 0; i <= text.length(); i++) {
+      boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+      if (wordChar && start < 0) {
+        start = i;
+      } else if (!wordChar && start >= 0) {
+        terms.add(text.substring(start, i).toLowerCase());
+        start = -1;
+      }
+    }
+    return terms;
+  }
+}
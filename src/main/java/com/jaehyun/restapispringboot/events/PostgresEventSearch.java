@@ -0,0 +1,60 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * PostgreSQL 의 tsvector 로 검색한다. search_vector 는 generated column 이라서 insert / update 와 같은
+ * 트랜잭션에서 데이터베이스가 갱신하고, GIN 인덱스로 일치하는 행만 읽는다.
+ * 한국어 형태소 분석기가 없으므로 'simple' 설정(소문자 변환, 공백과 기호로 분리)을 쓴다. PostgreSQL 12 이상 필요.
+ *
+ * 컬럼을 추가하면 테이블을 다시 쓰므로 애플리케이션이 뜰 때 만들지 않는다. 배포 전에 db/postgres/event-search.sql 을
+ * 실행해야 하고, 컬럼이 없으면 검색이 매번 실패하는 대신 시작할 때 실패한다.
+ */
+public class PostgresEventSearch implements EventSearch {
+
+  static final String SCRIPT = "db/postgres/event-search.sql";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final EventRepository eventRepository;
+
+  public PostgresEventSearch(JdbcTemplate jdbcTemplate, EventRepository eventRepository) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventRepository = eventRepository;
+  }
+
+  public void initialize() {
+    Integer columns = jdbcTemplate.queryForObject("select count(*) from information_schema.columns "
+            + "where table_schema = current_schema() and table_name = 'event' and column_name = 'search_vector'",
+            Integer.class);
+    if (columns == null || columns == 0) {
+      throw new IllegalStateException("event.search_vector does not exist. Run " + SCRIPT + " before starting");
+    }
+  }
+
+  @Override
+  public Page<Event> search(String query, Pageable pageable) {
+    Long total = jdbcTemplate.queryForObject(
+            "select count(*) from event where search_vector @@ plainto_tsquery('simple', ?)", Long.class, query);
+    if (total == null || total == 0 || pageable.getOffset() >= total) {
+      return new PageImpl<>(List.of(), pageable, total == null ? 0 : total);
+    }
+
+    List<Integer> ids = jdbcTemplate.queryForList("select id from event, plainto_tsquery('simple', ?) query "
+                    + "where search_vector @@ query order by ts_rank(search_vector, query) desc, id limit ? offset ?",
+            Integer.class, query, pageable.getPageSize(), pageable.getOffset());
+    return new PageImpl<>(EventSearch.findAllInOrder(eventRepository, ids), pageable, total);
+  }
+
+  @Override
+  public void index(Event event) {
+  }
+
+  @Override
+  public void remove(Integer id) {
+  }
+}
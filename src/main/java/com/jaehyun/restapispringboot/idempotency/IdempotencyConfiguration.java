@@ -0,0 +1,39 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import com.jaehyun.restapispringboot.ratelimit.ClientKeyResolver;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+@Configuration
+@ConditionalOnProperty(name = "events.idempotency.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+public class IdempotencyConfiguration {
+
+  @Bean
+  @ConditionalOnProperty(name = "events.idempotency.store", havingValue = "memory", matchIfMissing = true)
+  public IdempotencyStore inMemoryIdempotencyStore(IdempotencyProperties properties) {
+    return new InMemoryIdempotencyStore(properties);
+  }
+
+  @Bean(initMethod = "createTable")
+  @Lazy(false)
+  @ConditionalOnProperty(name = "events.idempotency.store", havingValue = "jdbc")
+  public JdbcIdempotencyStore jdbcIdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+    return new JdbcIdempotencyStore(jdbcTemplate, properties);
+  }
+
+  @Bean
+  public FilterRegistrationBean<IdempotencyKeyFilter> idempotencyKeyFilter(IdempotencyStore store,
+                                                                           ClientKeyResolver clientKeyResolver,
+                                                                           IdempotencyProperties properties) {
+    FilterRegistrationBean<IdempotencyKeyFilter> registration = new FilterRegistrationBean<>(
+            new IdempotencyKeyFilter(store, clientKeyResolver, properties.getWaitTimeout()));
+    registration.addUrlPatterns("/api/events/*");
+    return registration;
+  }
+}
@@ -0,0 +1,176 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import com.jaehyun.restapispringboot.ratelimit.ClientKeyResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Idempotency-Key 헤더가 있는 POST 요청의 응답(status, Location, ETag, body)을 저장했다가
+ * 같은 key 로 재시도하면 컨트롤러를 거치지 않고 그대로 돌려준다. 검증, 매핑, insert 가 다시 실행되지 않는다.
+ *
+ * key 는 클라이언트마다 따로이므로 다른 클라이언트가 같은 key 를 보내도 서로의 응답을 받지 않는다.
+ * 같은 key 를 다른 body 로 보내면 422, 원래 요청이 wait-timeout 안에 끝나지 않으면 409 를 응답한다.
+ * 5xx 응답은 저장하지 않으므로 재시도하면 다시 처리한다.
+ */
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+  public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+  public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final IdempotencyStore store;
+  private final ClientKeyResolver clientKeyResolver;
+  private final Duration waitTimeout;
+
+  public IdempotencyKeyFilter(IdempotencyStore store, ClientKeyResolver clientKeyResolver, Duration waitTimeout) {
+    this.store = store;
+    this.clientKeyResolver = clientKeyResolver;
+    this.waitTimeout = waitTimeout;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY) == null;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+          throws ServletException, IOException {
+    String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY);
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      response.sendError(HttpStatus.BAD_REQUEST.value(), "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+      return;
+    }
+    String key = clientKeyResolver.resolve(request) + ":" + idempotencyKey;
+
+    byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+    String fingerprint = fingerprint(request, body);
+
+    Optional<IdempotentResponse> stored;
+    try {
+      stored = store.claimOrAwait(key, fingerprint, waitTimeout);
+    } catch (TimeoutException e) {
+      response.sendError(HttpStatus.CONFLICT.value(), "A request with this Idempotency-Key is still in progress");
+      return;
+    }
+    if (stored.isPresent()) {
+      replay(stored.get(), fingerprint, response);
+      return;
+    }
+
+    ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+    boolean completed = false;
+    try {
+      filterChain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+      if (responseWrapper.getStatus() < 500) {
+        store.complete(key, new IdempotentResponse(fingerprint, responseWrapper.getStatus(),
+                responseWrapper.getContentType(), responseWrapper.getHeader(HttpHeaders.LOCATION),
+                responseWrapper.getHeader(HttpHeaders.ETAG), responseWrapper.getContentAsByteArray()));
+        completed = true;
+      }
+    } finally {
+      if (!completed) {
+        store.release(key);
+      }
+      responseWrapper.copyBodyToResponse();
+    }
+  }
+
+  private void replay(IdempotentResponse stored, String fingerprint, HttpServletResponse response) throws IOException {
+    if (!stored.getFingerprint().equals(fingerprint)) {
+      response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(),
+              "Idempotency-Key was already used for a different request");
+      return;
+    }
+    response.setStatus(stored.getStatus());
+    response.setHeader(IDEMPOTENT_REPLAYED, "true");
+    if (stored.getContentType() != null) {
+      response.setContentType(stored.getContentType());
+    }
+    if (stored.getLocation() != null) {
+      response.setHeader(HttpHeaders.LOCATION, stored.getLocation());
+    }
+    if (stored.getETag() != null) {
+      response.setHeader(HttpHeaders.ETAG, stored.getETag());
+    }
+    if (stored.getBody() != null) {
+      response.setContentLength(stored.getBody().length);
+      response.getOutputStream().write(stored.getBody());
+    }
+  }
+
+  private String fingerprint(HttpServletRequest request, byte[] body) {
+    byte[] target = (request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8);
+    byte[] content = new byte[target.length + body.length];
+    System.arraycopy(target, 0, content, 0, target.length);
+    System.arraycopy(body, 0, content, target.length, body.length);
+    return DigestUtils.md5DigestAsHex(content);
+  }
+
+  // 해시를 계산하려고 미리 읽은 body 를 컨트롤러가 다시 읽을 수 있게 한다
+  private static class CachedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      return new BufferedReader(new InputStreamReader(getInputStream(), StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("events.idempotency")
+public class IdempotencyProperties {
+
+  public enum Store { MEMORY, JDBC }
+
+  private boolean enabled = true;
+  private Store store = Store.MEMORY;
+  // 저장된 응답을 재사용하는 기간
+  private Duration ttl = Duration.ofHours(24);
+  // MEMORY 저장소에 보관하는 최대 key 수
+  private long maximumSize = 10_000;
+  // 같은 key 의 요청이 처리 중일 때 기다리는 최대 시간. 넘으면 409
+  private Duration waitTimeout = Duration.ofSeconds(10);
+  // JDBC 저장소에서 선점한 요청이 이 시간 안에 끝나지 않으면 죽은 것으로 보고 다른 요청이 넘겨받는다
+  private Duration lease = Duration.ofSeconds(30);
+}
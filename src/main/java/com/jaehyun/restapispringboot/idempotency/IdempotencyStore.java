@@ -0,0 +1,21 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+public interface IdempotencyStore {
+
+  /**
+   * {@code key} 를 선점하면 empty 를 돌려주고, 호출한 쪽이 요청을 처리한 뒤 {@link #complete} 나 {@link #release} 를 불러야 한다.
+   * 이미 처리된 key 면 저장된 응답을, 처리 중인 key 면 처리가 끝날 때까지 최대 {@code wait} 만큼 기다린 뒤 그 응답을 돌려준다.
+   */
+  Optional<IdempotentResponse> claimOrAwait(String key, String fingerprint, Duration wait) throws TimeoutException;
+
+  void complete(String key, IdempotentResponse response);
+
+  /**
+   * 처리에 실패해서 결과를 저장하지 않는다. 기다리던 요청 중 하나가 key 를 다시 선점한다.
+   */
+  void release(String key);
+}
@@ -0,0 +1,20 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Idempotency-Key 로 처음 처리한 요청의 결과. 재시도에는 이 응답을 그대로 돌려준다.
+ */
+@Getter
+@AllArgsConstructor
+public class IdempotentResponse {
+
+  // 같은 key 로 다른 요청을 보냈는지 확인하기 위한 method + URI + body 의 해시
+  private final String fingerprint;
+  private final int status;
+  private final String contentType;
+  private final String location;
+  private final String eTag;
+  private final byte[] body;
+}
@@ -0,0 +1,70 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * key 마다 CompletableFuture 를 두어서 처리 중인 원래 요청이 끝나면 기다리던 중복 요청이 같은 결과를 받는다.
+ * 크기와 TTL 은 Caffeine 이 제한한다.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+  private final Cache<String, CompletableFuture<IdempotentResponse>> responses;
+
+  public InMemoryIdempotencyStore(IdempotencyProperties properties) {
+    this.responses = Caffeine.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterWrite(properties.getTtl())
+            .build();
+  }
+
+  @Override
+  public Optional<IdempotentResponse> claimOrAwait(String key, String fingerprint, Duration wait) throws TimeoutException {
+    long deadline = System.nanoTime() + wait.toNanos();
+    while (true) {
+      CompletableFuture<IdempotentResponse> existing = responses.asMap().putIfAbsent(key, new CompletableFuture<>());
+      if (existing == null) {
+        return Optional.empty();
+      }
+      IdempotentResponse response = await(existing, deadline - System.nanoTime());
+      if (response != null) {
+        return Optional.of(response);
+      }
+      // 원래 요청이 실패해서 key 가 풀렸다. 다시 선점을 시도한다
+    }
+  }
+
+  @Override
+  public void complete(String key, IdempotentResponse response) {
+    CompletableFuture<IdempotentResponse> future = responses.getIfPresent(key);
+    if (future != null) {
+      future.complete(response);
+    }
+  }
+
+  @Override
+  public void release(String key) {
+    CompletableFuture<IdempotentResponse> future = responses.asMap().remove(key);
+    if (future != null) {
+      future.complete(null);
+    }
+  }
+
+  private IdempotentResponse await(CompletableFuture<IdempotentResponse> future, long timeoutNanos) throws TimeoutException {
+    try {
+      return future.get(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TimeoutException("Interrupted while waiting for the original request");
+    } catch (ExecutionException e) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,146 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 여러 인스턴스가 같은 key 를 공유하도록 idempotency_key 테이블에 저장한다.
+ * 선점은 primary key 로 막고, 처리 중인 key 는 status 가 채워질 때까지 polling 한다.
+ *
+ * 선점한 인스턴스가 죽으면 status 가 비어 있는 행이 남으므로, claimed_at 부터 lease 가 지나도록 끝나지 않은 key 는
+ * 기다리던 요청이 넘겨받아 다시 처리한다. lease 는 요청 하나를 처리하는 데 걸리는 시간보다 충분히 길어야 한다.
+ */
+public class JdbcIdempotencyStore implements IdempotencyStore {
+
+  private static final long POLL_INTERVAL_MILLIS = 50;
+  private static final String CREATE_TABLE = "create table if not exists idempotency_key ("
+          + "idempotency_key varchar(512) not null primary key, "
+          + "fingerprint varchar(64) not null, "
+          + "created_at timestamp not null, "
+          + "claimed_at timestamp not null, "
+          + "status integer, "
+          + "content_type varchar(255), "
+          + "location varchar(2048), "
+          + "etag varchar(255), "
+          + "body blob)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final Duration ttl;
+  private final Duration lease;
+
+  public JdbcIdempotencyStore(JdbcTemplate jdbcTemplate, IdempotencyProperties properties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.ttl = properties.getTtl();
+    this.lease = properties.getLease();
+  }
+
+  public void createTable() {
+    String ddl = CREATE_TABLE;
+    if (isPostgres()) {
+      ddl = ddl.replace(" blob)", " bytea)");
+    }
+    jdbcTemplate.execute(ddl);
+  }
+
+  @Override
+  public Optional<IdempotentResponse> claimOrAwait(String key, String fingerprint, Duration wait) throws TimeoutException {
+    long deadline = System.nanoTime() + wait.toNanos();
+    while (true) {
+      Timestamp now = Timestamp.from(Instant.now());
+      try {
+        jdbcTemplate.update("insert into idempotency_key (idempotency_key, fingerprint, created_at, claimed_at) "
+                + "values (?, ?, ?, ?)", key, fingerprint, now, now);
+        return Optional.empty();
+      } catch (DuplicateKeyException e) {
+        // 다른 요청이 이미 선점했다
+      }
+
+      List<Row> rows = jdbcTemplate.query("select fingerprint, created_at, claimed_at, status, content_type, location, "
+              + "etag, body from idempotency_key where idempotency_key = ?", (rs, rowNum) -> new Row(
+              rs.getTimestamp("created_at").toInstant(), rs.getTimestamp("claimed_at"),
+              new IdempotentResponse(rs.getString("fingerprint"), rs.getInt("status"), rs.getString("content_type"),
+                      rs.getString("location"), rs.getString("etag"), rs.getBytes("body")),
+              rs.getObject("status") != null), key);
+      if (rows.isEmpty()) {
+        continue;
+      }
+      Row row = rows.get(0);
+      if (row.createdAt.isBefore(Instant.now().minus(ttl))) {
+        jdbcTemplate.update("delete from idempotency_key where idempotency_key = ? and created_at = ?",
+                key, Timestamp.from(row.createdAt));
+        continue;
+      }
+      if (row.completed) {
+        return Optional.of(row.response);
+      }
+      if (row.claimedAt.toInstant().isBefore(Instant.now().minus(lease))) {
+        // 선점한 요청이 lease 안에 끝나지 않았다. 여러 요청이 동시에 넘겨받지 않도록 읽은 claimed_at 그대로일 때만 바꾼다
+        if (jdbcTemplate.update("update idempotency_key set fingerprint = ?, claimed_at = ? "
+                + "where idempotency_key = ? and status is null and claimed_at = ?",
+                fingerprint, now, key, row.claimedAt) == 1) {
+          return Optional.empty();
+        }
+        continue;
+      }
+      if (System.nanoTime() > deadline) {
+        throw new TimeoutException("Request with Idempotency-Key " + key + " is still in progress");
+      }
+      sleep();
+    }
+  }
+
+  @Override
+  public void complete(String key, IdempotentResponse response) {
+    jdbcTemplate.update("update idempotency_key set status = ?, content_type = ?, location = ?, etag = ?, body = ? "
+                    + "where idempotency_key = ?",
+            response.getStatus(), response.getContentType(), response.getLocation(), response.getETag(),
+            response.getBody(), key);
+  }
+
+  @Override
+  public void release(String key) {
+    jdbcTemplate.update("delete from idempotency_key where idempotency_key = ?", key);
+  }
+
+  @Scheduled(fixedDelayString = "${events.idempotency.purge-interval:600000}")
+  public void purgeExpired() {
+    jdbcTemplate.update("delete from idempotency_key where created_at < ?", Timestamp.from(Instant.now().minus(ttl)));
+  }
+
+  private boolean isPostgres() {
+    return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+  }
+
+  private void sleep() throws TimeoutException {
+    try {
+      Thread.sleep(POLL_INTERVAL_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TimeoutException("Interrupted while waiting for the original request");
+    }
+  }
+
+  private static class Row {
+    private final Instant createdAt;
+    private final Timestamp claimedAt;
+    private final IdempotentResponse response;
+    private final boolean completed;
+
+    Row(Instant createdAt, Timestamp claimedAt, IdempotentResponse response, boolean completed) {
+      this.createdAt = createdAt;
+      this.claimedAt = claimedAt;
+      this.response = response;
+      this.completed = completed;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Set;
+
+/**
+ * 요청을 보낸 클라이언트를 구분하는 key. X-API-Key 가 events.api-keys 에 등록된 key 면 그 key 로, 아니면 remote address 로 구분한다.
+ * 등록되지 않은 key 를 그대로 믿으면 요청마다 key 를 바꿔서 클라이언트별 제한을 피하고 다른 클라이언트의 기록을 밀어낼 수 있다.
+ * 프록시 뒤에서는 server.forward-headers-strategy 를 설정해야 실제 IP 로 나뉜다.
+ */
+@Component
+public class ClientKeyResolver {
+
+  public static final String API_KEY = "X-API-Key";
+
+  private final Set<String> apiKeys;
+
+  public ClientKeyResolver(@Value("${events.api-keys:}") Set<String> apiKeys) {
+    this.apiKeys = Set.copyOf(apiKeys);
+  }
+
+  public String resolve(HttpServletRequest request) {
+    String apiKey = request.getHeader(API_KEY);
+    if (apiKey != null && apiKeys.contains(apiKey)) {
+      return "key:" + apiKey;
+    }
+    return "ip:" + request.getRemoteAddr();
+  }
+}
@@ -0,0 +1,65 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hikari 가 기록하는 hikaricp.connections.acquire 타이머를 주기적으로 읽어서 직전 주기 동안의
+ * 평균 커넥션 획득 대기 시간을 계산한다. 요청마다 타이머를 읽지 않도록 결과만 volatile 로 둔다.
+ */
+public class PoolWaitMonitor {
+
+  public static final String ACQUIRE_TIMER = "hikaricp.connections.acquire";
+  public static final String PENDING_GAUGE = "hikaricp.connections.pending";
+
+  private final MeterRegistry meterRegistry;
+  private final long maxPoolWaitNanos;
+  private long lastCount;
+  private double lastTotalNanos;
+  private volatile long recentWaitNanos;
+
+  public PoolWaitMonitor(MeterRegistry meterRegistry, Duration maxPoolWait) {
+    this.meterRegistry = meterRegistry;
+    this.maxPoolWaitNanos = maxPoolWait.toNanos();
+  }
+
+  @Scheduled(fixedDelayString = "${events.rate-limit.shedding.sample-interval:1000}")
+  public synchronized void sample() {
+    long count = 0;
+    double totalNanos = 0;
+    for (Timer timer : meterRegistry.find(ACQUIRE_TIMER).timers()) {
+      count += timer.count();
+      totalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+    }
+    long acquired = count - lastCount;
+    if (acquired > 0) {
+      recentWaitNanos = (long) ((totalNanos - lastTotalNanos) / acquired);
+    } else if (pending() == 0) {
+      // 요청을 모두 거절하는 동안에는 획득 기록이 없으므로 기다리는 스레드가 없으면 회복된 것으로 본다
+      recentWaitNanos = 0;
+    }
+    lastCount = count;
+    lastTotalNanos = totalNanos;
+  }
+
+  private double pending() {
+    double pending = 0;
+    for (Gauge gauge : meterRegistry.find(PENDING_GAUGE).gauges()) {
+      pending += gauge.value();
+    }
+    return pending;
+  }
+
+  public boolean isOverloaded() {
+    return recentWaitNanos > maxPoolWaitNanos;
+  }
+
+  public long getRecentWaitNanos() {
+    return recentWaitNanos;
+  }
+}
@@ -0,0 +1,40 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "events.rate-limit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfiguration {
+
+  @Bean
+  @Lazy(false)
+  @ConditionalOnProperty(name = "events.rate-limit.shedding.enabled", havingValue = "true", matchIfMissing = true)
+  public PoolWaitMonitor poolWaitMonitor(MeterRegistry meterRegistry, RateLimitProperties properties) {
+    return new PoolWaitMonitor(meterRegistry, properties.getShedding().getMaxPoolWait());
+  }
+
+  @Bean
+  public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitProperties properties,
+                                                                 ObjectProvider<PoolWaitMonitor> poolWaitMonitor,
+                                                                 ClientKeyResolver clientKeyResolver,
+                                                                 MeterRegistry meterRegistry) {
+    RateLimitFilter filter = new RateLimitFilter(
+            new RateLimiter(properties.getRead(), properties.getIdleTimeout(), properties.getMaximumClients()),
+            new RateLimiter(properties.getWrite(), properties.getIdleTimeout(), properties.getMaximumClients()),
+            poolWaitMonitor.getIfAvailable(), clientKeyResolver, properties.getShedding(), meterRegistry);
+    FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(filter);
+    registration.addUrlPatterns("/api/events/*");
+    // 거절할 요청은 Idempotency-Key 처리나 body 읽기 전에 돌려보낸다
+    registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return registration;
+  }
+}
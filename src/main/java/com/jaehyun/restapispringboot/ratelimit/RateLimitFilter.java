@@ -0,0 +1,98 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /api/events 요청을 클라이언트별 read / write budget 으로 제한한다. 클라이언트는 {@link ClientKeyResolver} 로
+ * 구분하므로 등록된 X-API-Key 는 key 마다, 그 밖의 요청은 IP 마다 budget 을 쓴다.
+ *
+ * budget 을 넘으면 429, 커넥션 풀 대기 시간이 events.rate-limit.shedding.max-pool-wait 를 넘으면
+ * budget 과 상관없이 503 을 응답한다. 둘 다 Retry-After 를 초 단위로 보낸다.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  public static final String API_KEY = ClientKeyResolver.API_KEY;
+  public static final String REQUESTS = "events.rate-limit.requests";
+
+  private final RateLimiter readLimiter;
+  private final RateLimiter writeLimiter;
+  private final PoolWaitMonitor poolWaitMonitor;
+  private final ClientKeyResolver clientKeyResolver;
+  private final long sheddingRetryAfterSeconds;
+  private final Outcomes read;
+  private final Outcomes write;
+
+  public RateLimitFilter(RateLimiter readLimiter, RateLimiter writeLimiter, PoolWaitMonitor poolWaitMonitor,
+                         ClientKeyResolver clientKeyResolver, RateLimitProperties.Shedding shedding,
+                         MeterRegistry meterRegistry) {
+    this.readLimiter = readLimiter;
+    this.writeLimiter = writeLimiter;
+    this.poolWaitMonitor = poolWaitMonitor;
+    this.clientKeyResolver = clientKeyResolver;
+    this.sheddingRetryAfterSeconds = Math.max(1, shedding.getRetryAfter().toSeconds());
+    this.read = new Outcomes(meterRegistry, "read");
+    this.write = new Outcomes(meterRegistry, "write");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+          throws ServletException, IOException {
+    boolean isRead = isRead(request.getMethod());
+    Outcomes outcomes = isRead ? read : write;
+
+    if (poolWaitMonitor != null && poolWaitMonitor.isOverloaded()) {
+      outcomes.shed.increment();
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(sheddingRetryAfterSeconds));
+      response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Database is overloaded");
+      return;
+    }
+
+    long waitNanos = (isRead ? readLimiter : writeLimiter).tryAcquire(clientKeyResolver.resolve(request));
+    if (waitNanos > 0) {
+      outcomes.rejected.increment();
+      long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+      response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), "Rate limit exceeded");
+      return;
+    }
+
+    outcomes.admitted.increment();
+    filterChain.doFilter(request, response);
+  }
+
+  public static boolean isRead(String method) {
+    return HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method);
+  }
+
+  private static class Outcomes {
+    private final Counter admitted;
+    private final Counter rejected;
+    private final Counter shed;
+
+    Outcomes(MeterRegistry meterRegistry, String budget) {
+      this.admitted = counter(meterRegistry, budget, "admitted");
+      this.rejected = counter(meterRegistry, budget, "rejected");
+      this.shed = counter(meterRegistry, budget, "shed");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String budget, String outcome) {
+      return Counter.builder(REQUESTS)
+              .description("Requests to /api/events by rate limit outcome")
+              .tag("budget", budget)
+              .tag("outcome", outcome)
+              .register(meterRegistry);
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties("events.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled = true;
+  // GET, HEAD, OPTIONS
+  private Budget read = new Budget(500, 100);
+  // 그 밖의 메서드
+  private Budget write = new Budget(100, 20);
+  // 이 시간 동안 요청이 없던 클라이언트의 bucket 은 버린다
+  private Duration idleTimeout = Duration.ofMinutes(10);
+  // 한 budget 에서 기억하는 최대 클라이언트 수
+  private long maximumClients = 100_000;
+  private Shedding shedding = new Shedding();
+
+  @Data
+  public static class Budget {
+    // 한 번에 몰아서 보낼 수 있는 요청 수
+    private int capacity;
+    // 초당 채워지는 요청 수
+    private double refillPerSecond;
+
+    public Budget() {
+    }
+
+    public Budget(int capacity, double refillPerSecond) {
+      this.capacity = capacity;
+      this.refillPerSecond = refillPerSecond;
+    }
+  }
+
+  @Data
+  public static class Shedding {
+    private boolean enabled = true;
+    // 최근 커넥션 획득 대기 시간의 평균이 이보다 길면 503
+    private Duration maxPoolWait = Duration.ofMillis(200);
+    private Duration retryAfter = Duration.ofSeconds(1);
+  }
+}
@@ -0,0 +1,37 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * 클라이언트 key 별 TokenBucket. 이미 있는 bucket 을 찾는 것은 lock 없이 끝나고,
+ * idle-timeout 동안 요청이 없던 bucket 은 Caffeine 이 버린다. 버려졌다가 다시 오면 가득 찬 bucket 으로 시작한다.
+ */
+public class RateLimiter {
+
+  private final RateLimitProperties.Budget budget;
+  private final Cache<String, TokenBucket> buckets;
+
+  public RateLimiter(RateLimitProperties.Budget budget, Duration idleTimeout, long maximumClients) {
+    this.budget = budget;
+    this.buckets = Caffeine.newBuilder()
+            .expireAfterAccess(idleTimeout)
+            .maximumSize(maximumClients)
+            .build();
+  }
+
+  /**
+   * @return 허용하면 0, 아니면 다시 시도할 수 있을 때까지의 나노초
+   */
+  public long tryAcquire(String clientKey) {
+    return buckets.get(clientKey, key -> new TokenBucket(budget.getCapacity(), budget.getRefillPerSecond()))
+            .tryAcquire(System.nanoTime());
+  }
+
+  long estimatedSize() {
+    buckets.cleanUp();
+    return buckets.estimatedSize();
+  }
+}
@@ -0,0 +1,37 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GCRA 로 구현한 token bucket. 남은 token 수 대신 bucket 이 다시 가득 차는 이론적 시각(TAT) 하나만
+ * AtomicLong 에 두므로 refill 을 위한 타이머나 lock 이 필요 없고 클라이언트마다 long 하나면 된다.
+ */
+public class TokenBucket {
+
+  private final long emissionInterval;
+  private final long tolerance;
+  private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+  public TokenBucket(int capacity, double refillPerSecond) {
+    this.emissionInterval = (long) (1_000_000_000L / refillPerSecond);
+    this.tolerance = emissionInterval * capacity;
+  }
+
+  /**
+   * @param now System.nanoTime()
+   * @return 허용하면 0, 아니면 token 이 생길 때까지 기다려야 하는 나노초
+   */
+  public long tryAcquire(long now) {
+    while (true) {
+      long tat = theoreticalArrival.get();
+      long next = (tat == Long.MIN_VALUE || tat - now < 0 ? now : tat) + emissionInterval;
+      long excess = next - now - tolerance;
+      if (excess > 0) {
+        return excess;
+      }
+      if (theoreticalArrival.compareAndSet(tat, next)) {
+        return 0;
+      }
+    }
+  }
+}
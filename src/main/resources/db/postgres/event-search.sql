@@ -0,0 +1,12 @@
+-- PostgresEventSearch 가 쓰는 search_vector 컬럼과 GIN 인덱스. 애플리케이션은 실행하지 않으므로 배포 전에 한 번 실행한다.
+-- add column ... stored 는 테이블 전체를 다시 쓰면서 ACCESS EXCLUSIVE lock 을 잡으므로 트래픽이 적을 때 실행해야 한다.
+-- 인덱스는 concurrently 로 만들기 때문에 트랜잭션 밖에서 실행해야 한다 (psql -f 는 문장마다 자동 커밋).
+-- PostgreSQL 12 이상 필요.
+
+alter table event add column if not exists search_vector tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(location, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'C')) stored;
+
+create index concurrently if not exists idx_event_search_vector on event using gin (search_vector);
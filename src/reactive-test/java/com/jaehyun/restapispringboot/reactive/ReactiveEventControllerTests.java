@@ -0,0 +1,318 @@
+package com.jaehyun.restapispringboot.reactive;
+
+import com.jaehyun.restapispringboot.common.ETags;
+import com.jaehyun.restapispringboot.common.TestDescription;
+import com.jaehyun.restapispringboot.events.Event;
+import com.jaehyun.restapispringboot.events.EventDto;
+import com.jaehyun.restapispringboot.events.EventStatus;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = ReactiveEventsApplication.class, properties = {
+        "spring.main.web-application-type=reactive",
+        "events.reactive.initialize-schema=true"
+})
+@AutoConfigureWebTestClient
+public class ReactiveEventControllerTests {
+
+  @Autowired
+  WebTestClient webTestClient;
+  @Autowired
+  ReactiveEventRepository eventRepository;
+
+  @Before
+  public void setUp() {
+    eventRepository.deleteAll().block();
+  }
+
+  @Test
+  @TestDescription("정상적으로 이벤트를 생성하는 테스트")
+  public void createEvent() {
+    EventDto event = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+
+    webTestClient.post().uri("/api/events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaTypes.HAL_JSON)
+            .bodyValue(event)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectHeader().exists(HttpHeaders.LOCATION)
+            .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(0L))
+            .expectHeader().contentType(MediaTypes.HAL_JSON)
+            .expectBody()
+            .jsonPath("id").exists()
+            .jsonPath("free").isEqualTo(false)
+            .jsonPath("offline").isEqualTo(true)
+            .jsonPath("eventStatus").isEqualTo(EventStatus.DRAFT.name())
+            .jsonPath("_links.self").exists()
+            .jsonPath("_links.query-events").exists()
+            .jsonPath("_links.update-event").exists()
+            .jsonPath("_links.profile").exists();
+  }
+
+  @Test
+  @TestDescription("입력받을 수 없는 값을 사용한 경우에 에러가 발생하는 테스트")
+  public void createEvent_Bad_Request() {
+    webTestClient.post().uri("/api/events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(MediaTypes.HAL_JSON)
+            .bodyValue("{\"name\":\"Spring\",\"id\":100}")
+            .exchange()
+            .expectStatus().isBadRequest();
+  }
+
+  @Test
+  @TestDescription("입력값이 비어있는 경우에 에러가 발생하는 테스트")
+  public void createEvent_Bad_Request_Empty_input() {
+    webTestClient.post().uri("/api/events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(new EventDto())
+            .exchange()
+            .expectStatus().isBadRequest();
+  }
+
+  @Test
+  @TestDescription("입력값이 잘못된 경우에 에러가 발생하는 테스트")
+  public void createEvent_Bad_Request_Wrong_input() {
+    EventDto eventDto = toEventDto(generateEvent(1)).toBuilder()
+            .basePrice(10000)
+            .maxPrice(200)
+            .build();
+
+    webTestClient.post().uri("/api/events")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(eventDto)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody()
+            .jsonPath("$[0].objectName").exists()
+            .jsonPath("$[0].defaultMessage").exists()
+            .jsonPath("$[0].code").isEqualTo("wrongPrices");
+  }
+
+  @Test
+  @TestDescription("30개의 이벤트를 10개씩 두번째 페이지 조회하기")
+  public void queryEvents() {
+    IntStream.range(0, 30).forEach(this::saveEvent);
+
+    webTestClient.get().uri("/api/events?page=1&size=10&sort=name,DESC")
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("page.totalElements").isEqualTo(30)
+            .jsonPath("page.number").isEqualTo(1)
+            .jsonPath("_embedded.eventResourceList.length()").isEqualTo(10)
+            .jsonPath("_embedded.eventResourceList[0].name").isEqualTo("event 26")
+            .jsonPath("_embedded.eventResourceList[0]._links.self").exists()
+            .jsonPath("_links.self").exists()
+            .jsonPath("_links.next").exists()
+            .jsonPath("_links.prev").exists()
+            .jsonPath("_links.profile").exists();
+  }
+
+  @Test
+  @TestDescription("기존의 이벤트를 하나 조회하기")
+  public void getEvent() {
+    Event event = saveEvent(100);
+
+    webTestClient.get().uri("/api/events/{id}", event.getId())
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(event.getVersion()))
+            .expectBody()
+            .jsonPath("name").exists()
+            .jsonPath("id").isEqualTo(event.getId())
+            .jsonPath("_links.self").exists()
+            .jsonPath("_links.profile").exists();
+  }
+
+  @Test
+  @TestDescription("없는 이벤트는 조회했을 때 404 응답받기")
+  public void getEvent404() {
+    webTestClient.get().uri("/api/events/11883")
+            .exchange()
+            .expectStatus().isNotFound();
+  }
+
+  @Test
+  @TestDescription("이벤트가 바뀌지 않았으면 304 응답받기")
+  public void getEvent_NotModified() {
+    Event event = saveEvent(100);
+
+    webTestClient.get().uri("/api/events/{id}", event.getId())
+            .header(HttpHeaders.IF_NONE_MATCH, ETags.of(event.getVersion()))
+            .exchange()
+            .expectStatus().isNotModified()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(event.getVersion()))
+            .expectBody().isEmpty();
+  }
+
+  @Test
+  @TestDescription("If-Match 없이 이벤트를 수정하면 428 응답받기")
+  public void updateEvent428_Without_IfMatch() {
+    Event event = saveEvent(200);
+
+    webTestClient.put().uri("/api/events/{id}", event.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(toEventDto(event))
+            .exchange()
+            .expectStatus().isEqualTo(428);
+  }
+
+  @Test
+  @TestDescription("If-Match 가 현재 버전과 다르면 412 응답받기")
+  public void updateEvent412_Stale_IfMatch() {
+    Event event = saveEvent(200);
+
+    webTestClient.put().uri("/api/events/{id}", event.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion() + 1))
+            .bodyValue(toEventDto(event))
+            .exchange()
+            .expectStatus().isEqualTo(412)
+            .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(event.getVersion()));
+  }
+
+  @Test
+  @TestDescription("이벤트를 정상적으로 수정하기")
+  public void updateEvent() {
+    Event event = saveEvent(200);
+    EventDto eventDto = toEventDto(event).toBuilder()
+            .name("Updated Event")
+            .basePrice(0)
+            .maxPrice(0)
+            .build();
+
+    webTestClient.put().uri("/api/events/{id}", event.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+            .bodyValue(eventDto)
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueEquals(HttpHeaders.ETAG, ETags.of(event.getVersion() + 1))
+            .expectBody()
+            .jsonPath("name").isEqualTo("Updated Event")
+            .jsonPath("free").isEqualTo(true)
+            .jsonPath("_links.self").exists();
+  }
+
+  @Test
+  @TestDescription("입력값이 잘못된 경우에 이벤트 수정 실패")
+  public void updateEvent400_Wrong() {
+    Event event = saveEvent(200);
+    EventDto eventDto = toEventDto(event).toBuilder()
+            .basePrice(20000)
+            .maxPrice(1000)
+            .build();
+
+    webTestClient.put().uri("/api/events/{id}", event.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+            .bodyValue(eventDto)
+            .exchange()
+            .expectStatus().isBadRequest();
+  }
+
+  @Test
+  @TestDescription("존재하지 않는 이벤트 수정 실패")
+  public void updateEvent404() {
+    Event event = saveEvent(200);
+
+    webTestClient.put().uri("/api/events/123123")
+            .contentType(MediaType.APPLICATION_JSON)
+            .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+            .bodyValue(toEventDto(event))
+            .exchange()
+            .expectStatus().isNotFound();
+  }
+
+  @Test
+  @TestDescription("모집 중인 이벤트에 참가하기")
+  public void enroll() {
+    LocalDateTime now = LocalDateTime.now();
+    Event event = generateEvent(300);
+    event.setBeginEnrollmentDateTime(now.minusDays(1));
+    event.setCloseEnrollmentDateTime(now.plusDays(1));
+    event.setBeginEventDateTime(now.plusDays(2));
+    event.setEndEventDateTime(now.plusDays(3));
+    event.setLimitOfEnrollment(1);
+    Integer id = eventRepository.insert(event).block().getId();
+
+    webTestClient.post().uri("/api/events/{id}/enrollments", id)
+            .exchange()
+            .expectStatus().isNoContent();
+    webTestClient.post().uri("/api/events/{id}/enrollments", id)
+            .exchange()
+            .expectStatus().isEqualTo(409)
+            .expectBody()
+            .jsonPath("$[0].code").isEqualTo("enrollmentFull");
+  }
+
+  @Test
+  @TestDescription("없는 이벤트에 참가하면 404 응답받기")
+  public void enroll404() {
+    webTestClient.post().uri("/api/events/123123/enrollments")
+            .exchange()
+            .expectStatus().isNotFound();
+  }
+
+  private Event saveEvent(int index) {
+    return eventRepository.insert(generateEvent(index)).block();
+  }
+
+  private Event generateEvent(int index) {
+    return Event.builder()
+            .name("event " + index)
+            .description("test event")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .offline(true)
+            .eventStatus(EventStatus.DRAFT)
+            .build();
+  }
+
+  private EventDto toEventDto(Event event) {
+    return EventDto.builder()
+            .name(event.getName())
+            .description(event.getDescription())
+            .beginEnrollmentDateTime(event.getBeginEnrollmentDateTime())
+            .closeEnrollmentDateTime(event.getCloseEnrollmentDateTime())
+            .beginEventDateTime(event.getBeginEventDateTime())
+            .endEventDateTime(event.getEndEventDateTime())
+            .location(event.getLocation())
+            .basePrice(event.getBasePrice())
+            .maxPrice(event.getMaxPrice())
+            .limitOfEnrollment(event.getLimitOfEnrollment())
+            .build();
+  }
+}
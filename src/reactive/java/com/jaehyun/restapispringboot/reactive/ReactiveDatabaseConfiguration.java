@@ -0,0 +1,55 @@
+package com.jaehyun.restapispringboot.reactive;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.util.StreamUtils;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * spring.r2dbc.url 로 커넥션 풀을 만든다. (예: r2dbc:pool:postgresql://localhost/events)
+ * 스키마는 JPA 쪽과 같은 event 테이블과 event_seq 시퀀스를 쓴다.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveDatabaseConfiguration extends AbstractR2dbcConfiguration {
+
+  private final String url;
+
+  public ReactiveDatabaseConfiguration(@Value("${spring.r2dbc.url:r2dbc:pool:h2:mem:///events?options=DB_CLOSE_DELAY=-1}") String url) {
+    this.url = url;
+  }
+
+  @Override
+  @Bean
+  public ConnectionFactory connectionFactory() {
+    return ConnectionFactories.get(url);
+  }
+
+  // 로컬 실행과 테스트용. 운영 DB 의 스키마는 서블릿 애플리케이션(JPA)과 같이 관리한다
+  @Bean
+  @ConditionalOnProperty(name = "events.reactive.initialize-schema", havingValue = "true")
+  public ApplicationRunner reactiveSchemaInitializer(DatabaseClient databaseClient,
+                                                     @Value("classpath:db/event-schema.sql") Resource schema) {
+    return args -> {
+      String script = StreamUtils.copyToString(schema.getInputStream(), StandardCharsets.UTF_8);
+      Flux.fromIterable(Arrays.asList(script.split(";")))
+              .map(String::trim)
+              .filter(statement -> !statement.isEmpty())
+              .concatMap(statement -> databaseClient.execute(statement).fetch().rowsUpdated())
+              .then()
+              .block();
+    };
+  }
+}
@@ -0,0 +1,232 @@
+package com.jaehyun.restapispringboot.reactive;
+
+import com.jaehyun.restapispringboot.common.ETags;
+import com.jaehyun.restapispringboot.events.Event;
+import com.jaehyun.restapispringboot.events.EventDto;
+import com.jaehyun.restapispringboot.events.EventMapper;
+import com.jaehyun.restapispringboot.events.EventResource;
+import com.jaehyun.restapispringboot.events.EventValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.hateoas.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Controller;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.MapBindingResult;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Validator;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * EventController 와 같은 계약(상태 코드, 헤더, HAL 링크)을 WebFlux 로 구현한다.
+ * batch, export, 검색, keyset 페이지와 필터는 아직 서블릿 쪽에만 있다.
+ */
+@Controller
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequestMapping(value = "/api/events", produces = MediaTypes.HAL_JSON_VALUE)
+public class ReactiveEventController {
+
+  private final ReactiveEventRepository eventRepository;
+  private final EventMapper eventMapper;
+  private final EventValidator eventValidator;
+  private final SpringValidatorAdapter validator;
+
+  public ReactiveEventController(ReactiveEventRepository eventRepository, EventMapper eventMapper,
+                                 EventValidator eventValidator, Validator validator) {
+    this.eventRepository = eventRepository;
+    this.eventMapper = eventMapper;
+    this.eventValidator = eventValidator;
+    this.validator = new SpringValidatorAdapter(validator);
+  }
+
+  @PostMapping
+  public Mono<ResponseEntity<?>> createEvent(@RequestBody EventDto eventDto, ServerHttpRequest request) {
+    Errors errors = validate(eventDto);
+    if (errors.hasErrors()) {
+      return Mono.just(ResponseEntity.badRequest().body(errors));
+    }
+
+    Event event = eventMapper.toEvent(eventDto);
+    event.update();
+    return eventRepository.insert(event).map(newEvent -> {
+      URI createUri = eventUri(request, newEvent.getId());
+      EventResource eventResource = new EventResource(newEvent, new Link(createUri.toString()).withSelfRel());
+      eventResource.add(new Link(eventsUri(request).toUriString()).withRel("query-events"));
+      eventResource.add(new Link(createUri.toString()).withRel("update-event"));
+      eventResource.add(new Link("/docs/index.html#resources-events-create").withRel("profile"));
+      return ResponseEntity.created(createUri).eTag(ETags.of(newEvent.getVersion())).body(eventResource);
+    });
+  }
+
+  @GetMapping
+  public Mono<ResponseEntity<?>> queryEvents(Pageable pageable, ServerHttpRequest request) {
+    Mono<List<EventResource>> content = eventRepository.findAll(pageable)
+            .map(event -> new EventResource(event, selfLink(request, event.getId())))
+            .collectList();
+    return Mono.zip(content, eventRepository.count()).map(tuple -> {
+      long total = tuple.getT2();
+      PagedModel.PageMetadata metadata =
+              new PagedModel.PageMetadata(pageable.getPageSize(), pageable.getPageNumber(), total);
+      PagedModel<EventResource> pagedResources = new PagedModel<>(tuple.getT1(), metadata);
+      addPaginationLinks(pagedResources, request, pageable, metadata);
+      pagedResources.add(new Link("/docs/index.html#resources-events-list").withRel("profile"));
+      return ResponseEntity.ok(pagedResources);
+    });
+  }
+
+  @GetMapping("/{id}")
+  public Mono<ResponseEntity<?>> getEvent(@PathVariable Integer id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                          ServerHttpRequest request) {
+    Mono<ResponseEntity<?>> body = eventRepository.findById(id).map(event -> {
+      EventResource eventResource = new EventResource(event, selfLink(request, id));
+      eventResource.add(new Link("/docs/index.html#resources-events-get").withRel("profile"));
+      return ResponseEntity.ok().eTag(ETags.of(event.getVersion())).body(eventResource);
+    });
+    if (ifNoneMatch == null) {
+      return body.defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // 엔티티를 읽기 전에 version 만 조회해서 304 여부를 판단한다
+    return eventRepository.findVersionById(id)
+            .flatMap(version -> {
+              String eTag = ETags.of(version);
+              if (ETags.matchesIfNoneMatch(ifNoneMatch, eTag)) {
+                return Mono.<ResponseEntity<?>>just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build());
+              }
+              return body;
+            })
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PutMapping("/{id}")
+  public Mono<ResponseEntity<?>> updateEvent(@PathVariable Integer id,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody EventDto eventDto, ServerHttpRequest request) {
+    return eventRepository.findById(id).<ResponseEntity<?>>flatMap(existingEvent -> {
+      String currentETag = ETags.of(existingEvent.getVersion());
+      if (ifMatch == null) {
+        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build());
+      }
+      if (!ETags.matchesIfMatch(ifMatch, currentETag)) {
+        return Mono.just(ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).eTag(currentETag).build());
+      }
+
+      Errors errors = validate(eventDto);
+      if (errors.hasErrors()) {
+        return Mono.just(ResponseEntity.badRequest().body(errors));
+      }
+
+      Long expectedVersion = existingEvent.getVersion();
+      eventMapper.update(eventDto, existingEvent);
+      existingEvent.update();
+      return eventRepository.update(existingEvent, expectedVersion).map(updated -> {
+        if (updated == 0) {
+          // If-Match 확인 이후에 다른 요청이 먼저 수정한 경우
+          return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        }
+        existingEvent.setVersion(expectedVersion + 1);
+        EventResource eventResource = new EventResource(existingEvent, selfLink(request, id));
+        eventResource.add(new Link("/docs/index.html#resources-events-update").withRel("profile"));
+        return ResponseEntity.ok().eTag(ETags.of(existingEvent.getVersion())).body(eventResource);
+      });
+    }).defaultIfEmpty(ResponseEntity.notFound().build());
+  }
+
+  @PostMapping("/{id}/enrollments")
+  public Mono<ResponseEntity<?>> enroll(@PathVariable Integer id) {
+    LocalDateTime now = LocalDateTime.now();
+    return eventRepository.enroll(id, now).flatMap(updated -> {
+      if (updated == 1) {
+        return Mono.just(ResponseEntity.noContent().build());
+      }
+
+      // 실패한 경우에만 이벤트를 읽어서 이유를 알려준다
+      return eventRepository.findById(id).<ResponseEntity<?>>map(event -> {
+        Errors errors = new MapBindingResult(new HashMap<>(), "enrollment");
+        if (now.isBefore(event.getBeginEnrollmentDateTime()) || !now.isBefore(event.getCloseEnrollmentDateTime())) {
+          errors.reject("enrollmentClosed", "Enrollment is not open for this event");
+        } else {
+          errors.reject("enrollmentFull", "limitOfEnrollment has been reached");
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+      }).defaultIfEmpty(ResponseEntity.notFound().build());
+    });
+  }
+
+  private Errors validate(EventDto eventDto) {
+    Errors errors = new BeanPropertyBindingResult(eventDto, "eventDto");
+    validator.validate(eventDto, errors);
+    if (!errors.hasErrors()) {
+      eventValidator.validate(eventDto, errors);
+    }
+    return errors;
+  }
+
+  // PagedResourcesAssembler 와 같은 first / prev / self / next / last 링크
+  private void addPaginationLinks(PagedModel<EventResource> model, ServerHttpRequest request, Pageable pageable,
+                                  PagedModel.PageMetadata metadata) {
+    long page = metadata.getNumber();
+    long lastPage = Math.max(metadata.getTotalPages() - 1, 0);
+    if (lastPage > 0) {
+      model.add(pageLink(request, pageable, 0).withRel(IanaLinkRelations.FIRST));
+    }
+    if (page > 0) {
+      model.add(pageLink(request, pageable, page - 1).withRel(IanaLinkRelations.PREV));
+    }
+    model.add(pageLink(request, pageable, page).withSelfRel());
+    if (page < lastPage) {
+      model.add(pageLink(request, pageable, page + 1).withRel(IanaLinkRelations.NEXT));
+    }
+    if (lastPage > 0) {
+      model.add(pageLink(request, pageable, lastPage).withRel(IanaLinkRelations.LAST));
+    }
+  }
+
+  private Link pageLink(ServerHttpRequest request, Pageable pageable, long page) {
+    UriComponentsBuilder builder = eventsUri(request)
+            .queryParam("page", page)
+            .queryParam("size", pageable.getPageSize());
+    if (pageable.getSort().isSorted()) {
+      builder.queryParam("sort", pageable.getSort().stream()
+              .map(order -> order.getProperty() + "," + order.getDirection().name().toLowerCase())
+              .collect(Collectors.toList()).toArray());
+    }
+    return new Link(builder.toUriString());
+  }
+
+  private Link selfLink(ServerHttpRequest request, Integer id) {
+    return new Link(eventUri(request, id).toString()).withSelfRel();
+  }
+
+  private URI eventUri(ServerHttpRequest request, Integer id) {
+    return eventsUri(request).path("/{id}").buildAndExpand(id).toUri();
+  }
+
+  private UriComponentsBuilder eventsUri(ServerHttpRequest request) {
+    return UriComponentsBuilder.fromHttpRequest(request)
+            .replacePath("/api/events")
+            .replaceQuery(null);
+  }
+}
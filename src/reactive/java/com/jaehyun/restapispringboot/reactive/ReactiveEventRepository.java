@@ -0,0 +1,219 @@
+package com.jaehyun.restapispringboot.reactive;
+
+import com.jaehyun.restapispringboot.events.Event;
+import com.jaehyun.restapispringboot.events.EventStatus;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * DatabaseClient 로 event 테이블을 직접 읽고 쓴다.
+ * Event 가 RepresentationModel 을 상속해서 links 필드가 있으므로 R2DBC 엔티티 매핑 대신 컬럼을 명시해서 매핑한다.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEventRepository {
+
+  // Event 의 @SequenceGenerator(allocationSize = 50) 와 같아야 JPA 가 쓰는 id 와 겹치지 않는다
+  private static final int ALLOCATION_SIZE = 50;
+  private static final String COLUMNS = "id, name, description, begin_enrollment_date_time, close_enrollment_date_time, "
+          + "begin_event_date_time, end_event_date_time, location, base_price, max_price, limit_of_enrollment, "
+          + "number_of_enrollments, offline, free, event_status, version";
+  private static final Map<String, String> SORTABLE_COLUMNS = new HashMap<>();
+
+  static {
+    SORTABLE_COLUMNS.put("id", "id");
+    SORTABLE_COLUMNS.put("name", "name");
+    SORTABLE_COLUMNS.put("beginEnrollmentDateTime", "begin_enrollment_date_time");
+    SORTABLE_COLUMNS.put("closeEnrollmentDateTime", "close_enrollment_date_time");
+    SORTABLE_COLUMNS.put("beginEventDateTime", "begin_event_date_time");
+    SORTABLE_COLUMNS.put("endEventDateTime", "end_event_date_time");
+    SORTABLE_COLUMNS.put("basePrice", "base_price");
+    SORTABLE_COLUMNS.put("maxPrice", "max_price");
+    SORTABLE_COLUMNS.put("eventStatus", "event_status");
+  }
+
+  private final DatabaseClient databaseClient;
+  private final AtomicReference<IdBlock> idBlock = new AtomicReference<>(new IdBlock(1, 0));
+
+  public ReactiveEventRepository(DatabaseClient databaseClient) {
+    this.databaseClient = databaseClient;
+  }
+
+  public Mono<Event> findById(Integer id) {
+    return databaseClient.execute("select " + COLUMNS + " from event where id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> toEvent(row))
+            .one();
+  }
+
+  public Mono<Long> findVersionById(Integer id) {
+    return databaseClient.execute("select version from event where id = :id")
+            .bind("id", id)
+            .map((row, metadata) -> row.get("version", Long.class))
+            .one();
+  }
+
+  public Flux<Event> findAll(Pageable pageable) {
+    return databaseClient.execute("select " + COLUMNS + " from event order by " + orderBy(pageable.getSort())
+                    + " limit :limit offset :offset")
+            .bind("limit", pageable.getPageSize())
+            .bind("offset", pageable.getOffset())
+            .map((row, metadata) -> toEvent(row))
+            .all();
+  }
+
+  public Mono<Long> count() {
+    return databaseClient.execute("select count(*) from event")
+            .map((row, metadata) -> row.get(0, Long.class))
+            .one();
+  }
+
+  public Mono<Event> insert(Event event) {
+    return nextId().flatMap(id -> {
+      event.setId(id);
+      event.setVersion(0L);
+      DatabaseClient.GenericExecuteSpec spec = databaseClient.execute("insert into event (" + COLUMNS + ") values ("
+              + ":id, :name, :description, :beginEnrollmentDateTime, :closeEnrollmentDateTime, :beginEventDateTime, "
+              + ":endEventDateTime, :location, :basePrice, :maxPrice, :limitOfEnrollment, :numberOfEnrollments, "
+              + ":offline, :free, :eventStatus, :version)")
+              .bind("id", id)
+              .bind("numberOfEnrollments", event.getNumberOfEnrollments())
+              .bind("version", event.getVersion());
+      return bindFields(spec, event).fetch().rowsUpdated().thenReturn(event);
+    });
+  }
+
+  /**
+   * {@code expectedVersion} 과 DB 의 version 이 같을 때만 수정한다. 수정된 행 수(0 또는 1)를 돌려준다.
+   */
+  public Mono<Integer> update(Event event, Long expectedVersion) {
+    DatabaseClient.GenericExecuteSpec spec = databaseClient.execute("update event set name = :name, "
+            + "description = :description, begin_enrollment_date_time = :beginEnrollmentDateTime, "
+            + "close_enrollment_date_time = :closeEnrollmentDateTime, begin_event_date_time = :beginEventDateTime, "
+            + "end_event_date_time = :endEventDateTime, location = :location, base_price = :basePrice, "
+            + "max_price = :maxPrice, limit_of_enrollment = :limitOfEnrollment, offline = :offline, free = :free, "
+            + "event_status = :eventStatus, version = version + 1 where id = :id and version = :version")
+            .bind("id", event.getId())
+            .bind("version", expectedVersion);
+    return bindFields(spec, event).fetch().rowsUpdated();
+  }
+
+  public Mono<Integer> enroll(Integer id, LocalDateTime now) {
+    return databaseClient.execute("update event set number_of_enrollments = number_of_enrollments + 1, "
+            + "version = version + 1 where id = :id "
+            + "and (limit_of_enrollment = 0 or number_of_enrollments < limit_of_enrollment) "
+            + "and begin_enrollment_date_time <= :now and close_enrollment_date_time > :now")
+            .bind("id", id)
+            .bind("now", now)
+            .fetch().rowsUpdated();
+  }
+
+  public Mono<Void> deleteAll() {
+    return databaseClient.execute("delete from event").then();
+  }
+
+  // Hibernate pooled optimizer 와 같은 규칙: 시퀀스 값 V 를 받으면 (V - 50, V] 구간을 이 인스턴스가 쓴다
+  private Mono<Integer> nextId() {
+    return Mono.defer(() -> {
+      long id = idBlock.get().next();
+      if (id > 0) {
+        return Mono.just((int) id);
+      }
+      return databaseClient.execute("select nextval('event_seq')")
+              .map((row, metadata) -> row.get(0, Long.class))
+              .one()
+              .map(hi -> {
+                IdBlock block = new IdBlock(Math.max(1, hi - ALLOCATION_SIZE + 1), hi);
+                long first = block.next();
+                idBlock.set(block);
+                return (int) first;
+              });
+    });
+  }
+
+  private DatabaseClient.GenericExecuteSpec bindFields(DatabaseClient.GenericExecuteSpec spec, Event event) {
+    spec = bind(spec, "name", event.getName(), String.class);
+    spec = bind(spec, "description", event.getDescription(), String.class);
+    spec = bind(spec, "beginEnrollmentDateTime", event.getBeginEnrollmentDateTime(), LocalDateTime.class);
+    spec = bind(spec, "closeEnrollmentDateTime", event.getCloseEnrollmentDateTime(), LocalDateTime.class);
+    spec = bind(spec, "beginEventDateTime", event.getBeginEventDateTime(), LocalDateTime.class);
+    spec = bind(spec, "endEventDateTime", event.getEndEventDateTime(), LocalDateTime.class);
+    spec = bind(spec, "location", event.getLocation(), String.class);
+    spec = bind(spec, "eventStatus", event.getEventStatus() == null ? null : event.getEventStatus().name(), String.class);
+    return spec.bind("basePrice", event.getBasePrice())
+            .bind("maxPrice", event.getMaxPrice())
+            .bind("limitOfEnrollment", event.getLimitOfEnrollment())
+            .bind("offline", event.isOffline())
+            .bind("free", event.isFree());
+  }
+
+  private static <T> DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                            T value, Class<T> type) {
+    return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+  }
+
+  private static String orderBy(Sort sort) {
+    if (sort.isUnsorted()) {
+      return "id";
+    }
+    return sort.stream()
+            .map(order -> {
+              String column = SORTABLE_COLUMNS.get(order.getProperty());
+              if (column == null) {
+                throw new IllegalArgumentException("Cannot sort events by " + order.getProperty());
+              }
+              return column + (order.isAscending() ? " asc" : " desc");
+            })
+            .collect(Collectors.joining(", "));
+  }
+
+  private static Event toEvent(Row row) {
+    String eventStatus = row.get("event_status", String.class);
+    return Event.builder()
+            .id(row.get("id", Integer.class))
+            .name(row.get("name", String.class))
+            .description(row.get("description", String.class))
+            .beginEnrollmentDateTime(row.get("begin_enrollment_date_time", LocalDateTime.class))
+            .closeEnrollmentDateTime(row.get("close_enrollment_date_time", LocalDateTime.class))
+            .beginEventDateTime(row.get("begin_event_date_time", LocalDateTime.class))
+            .endEventDateTime(row.get("end_event_date_time", LocalDateTime.class))
+            .location(row.get("location", String.class))
+            .basePrice(row.get("base_price", Integer.class))
+            .maxPrice(row.get("max_price", Integer.class))
+            .limitOfEnrollment(row.get("limit_of_enrollment", Integer.class))
+            .numberOfEnrollments(row.get("number_of_enrollments", Integer.class))
+            .offline(row.get("offline", Boolean.class))
+            .free(row.get("free", Boolean.class))
+            .eventStatus(eventStatus == null ? null : EventStatus.valueOf(eventStatus))
+            .version(row.get("version", Long.class))
+            .build();
+  }
+
+  private static class IdBlock {
+    private final AtomicLong next;
+    private final long hi;
+
+    IdBlock(long lo, long hi) {
+      this.next = new AtomicLong(lo);
+      this.hi = hi;
+    }
+
+    long next() {
+      long id = next.getAndIncrement();
+      return id <= hi ? id : -1;
+    }
+  }
+}
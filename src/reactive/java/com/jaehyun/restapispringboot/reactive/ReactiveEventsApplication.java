@@ -0,0 +1,46 @@
+package com.jaehyun.restapispringboot.reactive;
+
+import com.jaehyun.restapispringboot.common.ErrorsSerializer;
+import com.jaehyun.restapispringboot.events.EventMapperImpl;
+import com.jaehyun.restapispringboot.events.EventValidator;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * WebFlux + R2DBC 로 띄우는 /api/events. -Preactive 로 빌드할 때만 컴파일된다.
+ *
+ * 같은 패키지 트리 아래에 있어서 서블릿 애플리케이션도 이 패키지를 스캔하므로,
+ * 이 패키지의 빈은 모두 REACTIVE 웹 애플리케이션에서만 등록되도록 조건을 건다.
+ * 검증, 매핑, 에러 직렬화는 서블릿 쪽 빈을 그대로 가져다 쓴다.
+ */
+@SpringBootApplication(exclude = {
+        DataSourceAutoConfiguration.class,
+        DataSourceTransactionManagerAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class
+})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableHypermediaSupport(type = EnableHypermediaSupport.HypermediaType.HAL)
+@Import({EventValidator.class, EventMapperImpl.class, ErrorsSerializer.class})
+public class ReactiveEventsApplication implements WebFluxConfigurer {
+
+  public static void main(String[] args) {
+    new SpringApplicationBuilder(ReactiveEventsApplication.class)
+            .web(WebApplicationType.REACTIVE)
+            .run(args);
+  }
+
+  @Override
+  public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+    configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+  }
+}
@@ -0,0 +1,23 @@
+create sequence if not exists event_seq start with 1 increment by 50;
+
+create table if not exists event (
+  id integer not null,
+  name varchar(255),
+  description varchar(255),
+  begin_enrollment_date_time timestamp,
+  close_enrollment_date_time timestamp,
+  begin_event_date_time timestamp,
+  end_event_date_time timestamp,
+  location varchar(255),
+  base_price integer not null,
+  max_price integer not null,
+  limit_of_enrollment integer not null,
+  number_of_enrollments integer not null,
+  offline boolean not null,
+  free boolean not null,
+  event_status varchar(255),
+  version bigint,
+  primary key (id)
+);
+
+create index if not exists idx_event_status on event (event_status, id);
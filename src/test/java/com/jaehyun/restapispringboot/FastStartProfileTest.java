@@ -0,0 +1,53 @@
+package com.jaehyun.restapispringboot;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("fast-start")
+public class FastStartProfileTest {
+
+  @Autowired
+  MockMvc mockMvc;
+  @Autowired
+  ConfigurableApplicationContext context;
+
+  @Test
+  @TestDescription("fast-start 에서도 컨트롤러와 @Scheduled bean 은 시작할 때 만들고 나머지는 처음 쓸 때 만든다")
+  public void eagerBeans() {
+    assertThat(context.getBeanFactory().containsSingleton("eventController")).isTrue();
+    assertThat(context.getBeanFactory().containsSingleton("cacheInvalidator")).isTrue();
+    assertThat(context.getBeanFactory().containsSingleton("eventLifecycleScheduler")).isTrue();
+    assertThat(context.getBeanFactory().containsSingleton("poolWaitMonitor")).isTrue();
+    assertThat(context.getBeanFactory().containsSingleton("restTemplateBuilder")).isFalse();
+  }
+
+  @Test
+  @TestDescription("fast-start 에서도 이벤트를 만들 수 있다")
+  public void createEvent() throws Exception {
+    mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content("{\"name\":\"Spring\",\"description\":\"fast start\","
+                            + "\"beginEnrollmentDateTime\":\"2018-11-23T14:21:00\",\"closeEnrollmentDateTime\":\"2018-11-24T14:21:00\","
+                            + "\"beginEventDateTime\":\"2018-11-25T14:21:00\",\"endEventDateTime\":\"2018-11-26T14:21:00\","
+                            + "\"basePrice\":100,\"maxPrice\":200,\"limitOfEnrollment\":100}"))
+            .andExpect(status().isCreated());
+  }
+}
@@ -0,0 +1,93 @@
+package com.jaehyun.restapispringboot;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 애플리케이션을 새 JVM 으로 띄우고 첫 POST /api/events 가 201 을 받을 때까지 걸린 시간을 잰다.
+ * appcds 프로파일이 클래스 목록을 만들 때와 StartupBenchmark 에서 쓴다. 자식 JVM 의 로그는 target/startup-probe.log 에 남는다.
+ *
+ * 사용법: StartupProbe &lt;classpath&gt; [JVM 옵션...]
+ */
+public class StartupProbe {
+
+  private static final Duration TIMEOUT = Duration.ofMinutes(2);
+  private static final String EVENT = "{\"name\":\"startup probe\",\"description\":\"time to first POST\","
+          + "\"beginEnrollmentDateTime\":\"2018-11-23T14:21:00\",\"closeEnrollmentDateTime\":\"2018-11-24T14:21:00\","
+          + "\"beginEventDateTime\":\"2018-11-25T14:21:00\",\"endEventDateTime\":\"2018-11-26T14:21:00\","
+          + "\"location\":\"강남역\",\"basePrice\":100,\"maxPrice\":200,\"limitOfEnrollment\":100}";
+
+  public static void main(String[] args) throws Exception {
+    List<String> jvmOptions = Arrays.asList(args).subList(1, args.length);
+    Duration elapsed = timeToFirstPost(args[0], jvmOptions, "fast-start");
+    System.out.println("time-to-first-POST: " + elapsed.toMillis() + " ms");
+  }
+
+  public static Duration timeToFirstPost(String classpath, List<String> jvmOptions, String profiles)
+          throws IOException, InterruptedException {
+    int port = freePort();
+    List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(jvmOptions);
+    command.add("-cp");
+    command.add(classpath);
+    command.add(RestApiSpringbootApplication.class.getName());
+    command.add("--server.port=" + port);
+    command.add("--spring.profiles.active=" + profiles);
+
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/events"))
+            .header("Content-Type", "application/json")
+            .header("Accept", "application/hal+json")
+            .POST(HttpRequest.BodyPublishers.ofString(EVENT))
+            .build();
+
+    long start = System.nanoTime();
+    Process process = new ProcessBuilder(command)
+            .redirectErrorStream(true)
+            .redirectOutput(ProcessBuilder.Redirect.appendTo(new File("target/startup-probe.log")))
+            .start();
+    try {
+      while (System.nanoTime() - start < TIMEOUT.toNanos()) {
+        if (!process.isAlive()) {
+          throw new IllegalStateException("Application exited with " + process.exitValue()
+                  + ", see target/startup-probe.log");
+        }
+        try {
+          int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+          if (status == 201) {
+            return Duration.ofNanos(System.nanoTime() - start);
+          }
+        } catch (ConnectException e) {
+          // 아직 포트를 열지 않았다
+        }
+        Thread.sleep(10);
+      }
+      throw new IllegalStateException("No successful POST /api/events within " + TIMEOUT);
+    } finally {
+      // 정상 종료시켜야 -XX:DumpLoadedClassList 파일이 끝까지 써진다
+      process.destroy();
+      if (!process.waitFor(30, TimeUnit.SECONDS)) {
+        process.destroyForcibly();
+      }
+    }
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+}
@@ -0,0 +1,177 @@
+package com.jaehyun.restapispringboot.cache;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import com.jaehyun.restapispringboot.events.Event;
+import com.jaehyun.restapispringboot.events.EventCache;
+import com.jaehyun.restapispringboot.events.EventFilter;
+import com.jaehyun.restapispringboot.events.EventRepository;
+import com.jaehyun.restapispringboot.events.EventStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "events.hibernate-cache.invalidation.poll-interval=3600000")
+public class HibernateCacheTest {
+
+  @Autowired
+  EventRepository eventRepository;
+  @Autowired
+  EventCache eventCache;
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+  @Autowired
+  JdbcCacheInvalidator invalidator;
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+  @Autowired
+  MeterRegistry meterRegistry;
+
+  Statistics statistics;
+
+  @Before
+  public void setUp() {
+    eventRepository.deleteAll();
+    // 같은 데이터베이스를 쓰는 다른 테스트 컨텍스트가 남긴 기록을 먼저 적용해둔다
+    invalidator.poll();
+    entityManagerFactory.getCache().evictAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+  }
+
+  @Test
+  @TestDescription("같은 이벤트를 다시 조회하면 2차 캐시에서 읽고 hit ratio 를 노출한다")
+  public void findById_SecondLevelCacheHit() {
+    Event event = eventRepository.save(generateEvent());
+
+    eventRepository.findById(event.getId());
+    eventRepository.findById(event.getId());
+
+    CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(Event.CACHE_REGION);
+    assertThat(region.getHitCount()).isGreaterThanOrEqualTo(2);
+    assertThat(meterRegistry.get(HibernateCacheConfiguration.HIT_RATIO).tag("region", Event.CACHE_REGION)
+            .gauge().value()).isEqualTo(1.0);
+  }
+
+  @Test
+  @TestDescription("같은 조건의 목록 조회는 query cache 에서 읽고 이벤트가 바뀌면 다시 조회한다")
+  public void findAll_QueryCacheHit() {
+    eventRepository.save(generateEvent());
+    EventFilter filter = new EventFilter();
+    filter.setFree(true);
+
+    eventRepository.findAll(filter.toSpecification(), PageRequest.of(0, 10));
+    assertThat(eventRepository.findAll(filter.toSpecification(), PageRequest.of(0, 10))).hasSize(1);
+    assertThat(statistics.getQueryCacheHitCount()).isGreaterThanOrEqualTo(1);
+
+    eventRepository.save(generateEvent());
+    assertThat(eventRepository.findAll(filter.toSpecification(), PageRequest.of(0, 10))).hasSize(2);
+  }
+
+  @Test
+  @TestDescription("다른 노드가 남긴 무효화 기록을 읽으면 2차 캐시와 events 캐시에서 이벤트를 비운다")
+  public void poll_EvictsRemoteChanges() {
+    Event event = eventRepository.save(generateEvent());
+    eventCache.findById(event.getId());
+    eventRepository.findById(event.getId());
+    assertThat(entityManagerFactory.getCache().contains(Event.class, event.getId())).isTrue();
+
+    // 다른 노드가 이름을 바꾼 것처럼 데이터베이스만 수정한다
+    jdbcTemplate.update("update event set name = ? where id = ?", "changed on other node", event.getId());
+    jdbcTemplate.update("insert into cache_invalidation (node_id, entity_name, entity_id) values (?, ?, ?)",
+            "other-node", Event.class.getName(), event.getId());
+
+    assertThat(invalidator.poll()).isEqualTo(1);
+    assertThat(entityManagerFactory.getCache().contains(Event.class, event.getId())).isFalse();
+    assertThat(eventCache.findById(event.getId()).get().getName()).isEqualTo("changed on other node");
+    // 같은 기록은 다시 적용하지 않는다
+    assertThat(invalidator.poll()).isEqualTo(0);
+  }
+
+  @Test
+  @TestDescription("이 노드가 이벤트를 바꾸면 다음 poll 에서 다른 노드를 위한 무효화 기록을 남기고 자신은 다시 적용하지 않는다")
+  public void evict_PublishesInvalidation() {
+    Event event = eventRepository.save(generateEvent());
+
+    eventCache.evict(event.getId());
+    eventCache.clear();
+    // 쓰기 경로에서는 기록하지 않는다
+    assertThat(countInvalidations(event.getId())).isZero();
+
+    assertThat(invalidator.poll()).isEqualTo(0);
+    assertThat(jdbcTemplate.queryForObject("select count(*) from cache_invalidation where node_id = ? and entity_id = ?",
+            Integer.class, invalidator.getNodeId(), event.getId())).isEqualTo(1);
+    assertThat(jdbcTemplate.queryForObject("select count(*) from cache_invalidation where node_id = ? and entity_id is null",
+            Integer.class, invalidator.getNodeId())).isGreaterThanOrEqualTo(1);
+    assertThat(invalidator.poll()).isEqualTo(0);
+  }
+
+  @Test
+  @TestDescription("없는 이벤트 조회는 캐시하지 않으므로 다른 노드가 나중에 저장한 이벤트를 바로 읽는다")
+  public void findById_AbsentIsNotCached() {
+    int id = 910001;
+    assertThat(eventCache.findById(id)).isEmpty();
+
+    // write-behind 나 다른 노드가 저장한 것처럼 무효화 기록 없이 데이터베이스에만 넣는다
+    jdbcTemplate.update("insert into event (id, name, base_price, max_price, limit_of_enrollment, "
+            + "number_of_enrollments, offline, free, event_status, version) "
+            + "values (?, 'saved later', 0, 0, 0, 0, false, true, 'DRAFT', 0)", id);
+
+    assertThat(eventCache.findById(id).map(Event::getName)).contains("saved later");
+  }
+
+  @Test
+  @TestDescription("다른 이벤트에 참가해도 2차 캐시의 이벤트는 그대로 두고 참가한 이벤트만 비운다")
+  public void enroll_EvictsOnlyEnrolledEvent() {
+    Event cached = eventRepository.save(generateEvent());
+    LocalDateTime now = LocalDateTime.now();
+    Event enrolled = generateEvent();
+    enrolled.setBeginEnrollmentDateTime(now.minusDays(1));
+    enrolled.setCloseEnrollmentDateTime(now.plusDays(1));
+    enrolled.setEventStatus(EventStatus.BEGAN_ENROLLMENT);
+    enrolled = eventRepository.save(enrolled);
+    eventRepository.findById(cached.getId());
+    eventRepository.findById(enrolled.getId());
+    assertThat(entityManagerFactory.getCache().contains(Event.class, cached.getId())).isTrue();
+
+    assertThat(eventRepository.enroll(enrolled.getId(), now)).isEqualTo(1);
+
+    assertThat(entityManagerFactory.getCache().contains(Event.class, cached.getId())).isTrue();
+    assertThat(entityManagerFactory.getCache().contains(Event.class, enrolled.getId())).isFalse();
+    assertThat(eventRepository.findById(enrolled.getId()).get().getNumberOfEnrollments()).isEqualTo(1);
+  }
+
+  private int countInvalidations(Integer eventId) {
+    return jdbcTemplate.queryForObject("select count(*) from cache_invalidation where node_id = ? and entity_id = ?",
+            Integer.class, invalidator.getNodeId(), eventId);
+  }
+
+  private Event generateEvent() {
+    Event event = Event.builder()
+            .name("cached event")
+            .description("test event")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .limitOfEnrollment(100)
+            .eventStatus(EventStatus.DRAFT)
+            .build();
+    event.update();
+    return event;
+  }
+}
@@ -0,0 +1,125 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTest {
+
+  SwitchableDataSource replica;
+  ReplicaPool replicaPool;
+  JdbcTemplate jdbcTemplate;
+  TransactionTemplate transactionTemplate;
+
+  @Before
+  public void setUp() {
+    DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1");
+    replica = new SwitchableDataSource("jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1");
+    createNode(primary, "primary");
+    createNode(replica, "replica");
+    JdbcTemplate replicaJdbcTemplate = new JdbcTemplate(replica);
+    replicaJdbcTemplate.execute("create table if not exists replica_lag (lag_seconds int)");
+    replicaJdbcTemplate.update("delete from replica_lag");
+    replicaJdbcTemplate.update("insert into replica_lag values (0)");
+
+    replicaPool = new ReplicaPool(List.of(replica), "select lag_seconds from replica_lag", Duration.ofSeconds(5));
+    replicaPool.checkHealth();
+    DataSource dataSource = new LazyConnectionDataSourceProxy(
+            new ReadWriteRoutingDataSource(primary, replicaPool));
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+  }
+
+  @After
+  public void tearDown() {
+    ReplicaRouting.clear();
+  }
+
+  @Test
+  @TestDescription("readOnly 트랜잭션은 replica 에서, 쓰기 트랜잭션은 primary 에서 실행한다")
+  public void readOnlyTransaction_UsesReplica() {
+    assertThat(nodeInTransaction(true)).isEqualTo("replica");
+    assertThat(nodeInTransaction(false)).isEqualTo("primary");
+  }
+
+  @Test
+  @TestDescription("트랜잭션 밖에서는 요청 힌트를 따르고 primary 를 요구하면 readOnly 트랜잭션도 primary 를 쓴다")
+  public void requestHint() {
+    assertThat(node()).isEqualTo("primary");
+    ReplicaRouting.preferReplica();
+    assertThat(node()).isEqualTo("replica");
+    ReplicaRouting.requirePrimary();
+    assertThat(nodeInTransaction(true)).isEqualTo("primary");
+  }
+
+  @Test
+  @TestDescription("replica 가 커넥션을 주지 못하면 primary 에서 읽고 다음 확인에서 회복되면 다시 replica 를 쓴다")
+  public void replicaDown_FallsBackToPrimary() {
+    replica.down = true;
+
+    assertThat(nodeInTransaction(true)).isEqualTo("primary");
+    assertThat(replicaPool.isAvailable()).isFalse();
+    assertThat(replicaPool.getFallbackCount(ReplicaPool.Fallback.ERROR)).isEqualTo(1);
+
+    replica.down = false;
+    replicaPool.checkHealth();
+    assertThat(nodeInTransaction(true)).isEqualTo("replica");
+  }
+
+  @Test
+  @TestDescription("복제 지연이 max-lag 를 넘으면 그 replica 를 빼고 primary 에서 읽는다")
+  public void replicaLagging_FallsBackToPrimary() {
+    new JdbcTemplate(replica).update("update replica_lag set lag_seconds = 60");
+    replicaPool.checkHealth();
+
+    assertThat(replicaPool.isAvailable()).isFalse();
+    assertThat(nodeInTransaction(true)).isEqualTo("primary");
+    assertThat(replicaPool.getFallbackCount(ReplicaPool.Fallback.UNAVAILABLE)).isEqualTo(1);
+  }
+
+  private String nodeInTransaction(boolean readOnly) {
+    transactionTemplate.setReadOnly(readOnly);
+    return transactionTemplate.execute(status -> node());
+  }
+
+  private String node() {
+    return jdbcTemplate.queryForObject("select name from node", String.class);
+  }
+
+  private static void createNode(DataSource dataSource, String name) {
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("create table if not exists node (name varchar(20))");
+    jdbcTemplate.update("delete from node");
+    jdbcTemplate.update("insert into node values (?)", name);
+  }
+
+  static class SwitchableDataSource extends DriverManagerDataSource {
+    volatile boolean down;
+
+    SwitchableDataSource(String url) {
+      super(url);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      if (down) {
+        throw new SQLException("replica is down");
+      }
+      return super.getConnection();
+    }
+  }
+}
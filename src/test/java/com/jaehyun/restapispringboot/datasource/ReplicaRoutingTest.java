@@ -0,0 +1,182 @@
+package com.jaehyun.restapispringboot.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaehyun.restapispringboot.common.TestDescription;
+import com.jaehyun.restapispringboot.events.Event;
+import com.jaehyun.restapispringboot.events.EventDto;
+import com.jaehyun.restapispringboot.ratelimit.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "events.datasource.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "events.datasource.stickiness=1m",
+        "events.api-keys=writer,reader,writer-1,reader-1,writer-2,reader-2",
+        // replica_lag 는 setUp 에서 만들므로 컨텍스트가 뜨는 동안 빈 replica 는 건강하지 않은 것으로 본다
+        "events.datasource.lag-query=select lag_seconds from replica_lag",
+        "events.datasource.health-check-interval=3600000"
+})
+@AutoConfigureMockMvc
+public class ReplicaRoutingTest {
+
+  @Autowired
+  MockMvc mockMvc;
+  @Autowired
+  ObjectMapper objectMapper;
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+  @Autowired
+  ReplicaPool replicaPool;
+  @Autowired
+  MeterRegistry meterRegistry;
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  JdbcTemplate replicaJdbcTemplate;
+
+  @Before
+  public void setUp() {
+    // 복제 대신 primary 의 스키마를 replica 로 옮긴다. 데이터는 옮기지 않으므로 primary 에만 있는 이벤트는 복제 지연처럼 보인다
+    replicaJdbcTemplate = new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1", "sa", ""));
+    List<String> schema = jdbcTemplate.queryForList("script nodata", String.class);
+    replicaJdbcTemplate.execute("drop all objects");
+    for (String statement : schema) {
+      if (!statement.startsWith("--")) {
+        replicaJdbcTemplate.execute(statement);
+      }
+    }
+    replicaJdbcTemplate.execute("create table replica_lag (lag_seconds int)");
+    replicaJdbcTemplate.update("insert into replica_lag values (0)");
+    replicaPool.checkHealth();
+  }
+
+  @Test
+  @TestDescription("이벤트 조회는 replica 에서 읽는다")
+  public void getEvent_ReadsFromReplica() throws Exception {
+    insertIntoReplica(900001, "from replica");
+
+    mockMvc.perform(get("/api/events/{id}", 900001).accept(MediaTypes.HAL_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value("from replica"));
+  }
+
+  @Test
+  @TestDescription("이벤트를 만든 클라이언트는 stickiness 동안 primary 에서 읽고 다른 클라이언트는 replica 에서 읽는다")
+  public void createEvent_ReadYourWrites() throws Exception {
+    long sticky = replicaPool.getFallbackCount(ReplicaPool.Fallback.STICKY);
+    String response = mockMvc.perform(post("/api/events")
+                    .header(RateLimitFilter.API_KEY, "writer")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(generateEventDto())))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getContentAsString();
+    int id = objectMapper.readTree(response).get("id").asInt();
+
+    mockMvc.perform(get("/api/events/{id}/status", id).header(RateLimitFilter.API_KEY, "writer"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("state").value("PERSISTED"));
+    mockMvc.perform(get("/api/events/{id}/status", id).header(RateLimitFilter.API_KEY, "reader"))
+            .andExpect(status().isNotFound());
+    assertThat(meterRegistry.get(ReplicaRoutingConfiguration.FALLBACKS).tag("reason", "sticky").functionCounter().count())
+            .isEqualTo(sticky + 1);
+  }
+
+  @Test
+  @TestDescription("다른 클라이언트가 replica 에서 아직 없는 이벤트를 조회해도 그 404 를 캐시하지 않으므로 만든 클라이언트는 조회할 수 있다")
+  public void getEvent_ReplicaMissIsNotCached() throws Exception {
+    MockHttpServletResponse created = createEvent("writer-1", "created");
+    int id = objectMapper.readTree(created.getContentAsString()).get("id").asInt();
+    // 다른 노드가 만들었거나 2차 캐시에서 밀려난 경우처럼 2차 캐시를 비운다
+    entityManagerFactory.getCache().evict(Event.class, id);
+
+    mockMvc.perform(get("/api/events/{id}", id).header(RateLimitFilter.API_KEY, "reader-1").accept(MediaTypes.HAL_JSON))
+            .andExpect(status().isNotFound());
+    mockMvc.perform(get("/api/events/{id}", id).header(RateLimitFilter.API_KEY, "writer-1").accept(MediaTypes.HAL_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value("created"));
+  }
+
+  @Test
+  @TestDescription("다른 클라이언트가 replica 에서 수정 전 이벤트를 읽어도 캐시하지 않으므로 수정한 클라이언트는 바뀐 이벤트를 읽는다")
+  public void getEvent_StaleReplicaReadIsNotCached() throws Exception {
+    MockHttpServletResponse created = createEvent("writer-2", "before update");
+    int id = objectMapper.readTree(created.getContentAsString()).get("id").asInt();
+    insertIntoReplica(id, "before update");
+
+    mockMvc.perform(put("/api/events/{id}", id)
+                    .header(RateLimitFilter.API_KEY, "writer-2")
+                    .header(HttpHeaders.IF_MATCH, created.getHeader(HttpHeaders.ETAG))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(generateEventDto().toBuilder().name("after update").build())))
+            .andExpect(status().isOk());
+    entityManagerFactory.getCache().evict(Event.class, id);
+
+    mockMvc.perform(get("/api/events/{id}", id).header(RateLimitFilter.API_KEY, "reader-2").accept(MediaTypes.HAL_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value("before update"));
+    mockMvc.perform(get("/api/events/{id}", id).header(RateLimitFilter.API_KEY, "writer-2").accept(MediaTypes.HAL_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value("after update"));
+  }
+
+  private MockHttpServletResponse createEvent(String apiKey, String name) throws Exception {
+    return mockMvc.perform(post("/api/events")
+                    .header(RateLimitFilter.API_KEY, apiKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(generateEventDto().toBuilder().name(name).build())))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse();
+  }
+
+  private void insertIntoReplica(int id, String name) {
+    replicaJdbcTemplate.update("insert into event (id, name, description, begin_enrollment_date_time, "
+                    + "close_enrollment_date_time, begin_event_date_time, end_event_date_time, location, base_price, "
+                    + "max_price, limit_of_enrollment, number_of_enrollments, offline, free, event_status, version) "
+                    + "values (?, ?, 'test event', ?, ?, ?, ?, null, 0, 0, 100, 0, false, true, 'DRAFT', 0)",
+            id, name, LocalDateTime.of(2018, 11, 23, 14, 21), LocalDateTime.of(2018, 11, 24, 14, 21),
+            LocalDateTime.of(2018, 11, 25, 14, 21), LocalDateTime.of(2018, 11, 26, 14, 21));
+  }
+
+  private EventDto generateEventDto() {
+    return EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+  }
+}
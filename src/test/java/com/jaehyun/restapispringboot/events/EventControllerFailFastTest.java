@@ -0,0 +1,70 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = "events.validation.mode=fail-fast")
+@AutoConfigureMockMvc
+public class EventControllerFailFastTest {
+
+  @Autowired
+  MockMvc mockMvc;
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Test
+  @TestDescription("fail-fast 모드에서는 처음 걸린 규칙 하나만 problem+json 으로 돌려준다")
+  public void createEvent_Bad_Request_Problem() throws Exception {
+    mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(EventDto.builder().build())))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON))
+            .andExpect(jsonPath("type").value(EventRejection.TYPE))
+            .andExpect(jsonPath("status").value(400))
+            .andExpect(jsonPath("field").value("name"))
+            .andExpect(jsonPath("code").value("NotEmpty"));
+  }
+
+  @Test
+  @TestDescription("fail-fast 모드에서도 올바른 입력은 그대로 이벤트를 만든다")
+  public void createEvent_Valid() throws Exception {
+    EventDto eventDto = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+
+    mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(eventDto)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("id").exists());
+  }
+}
@@ -1,9 +1,17 @@
 package com.jaehyun.restapispringboot.events;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jaehyun.restapispringboot.common.BinaryFormatConfig;
+import com.jaehyun.restapispringboot.common.ETags;
 import com.jaehyun.restapispringboot.common.RestDocsConfiguration;
 import com.jaehyun.restapispringboot.common.TestDescription;
+import com.jaehyun.restapispringboot.idempotency.IdempotencyKeyFilter;
 import org.hamcrest.Matchers;
+import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mockito;
@@ -17,10 +25,14 @@ import org.springframework.context.annotation.Import;
 import org.springframework.hateoas.MediaTypes;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.*;
 import static org.springframework.restdocs.headers.HeaderDocumentation.*;
@@ -28,7 +40,12 @@ import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.li
 import static org.springframework.restdocs.hypermedia.HypermediaDocumentation.links;
 import static org.springframework.restdocs.mockmvc.MockMvcRestDocumentation.document;
 import static org.springframework.restdocs.payload.PayloadDocumentation.*;
+import static org.springframework.restdocs.request.RequestDocumentation.parameterWithName;
+import static org.springframework.restdocs.request.RequestDocumentation.requestParameters;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -43,6 +60,17 @@ public class EventControllerTests {
   MockMvc mockMvc;
   @Autowired
   ObjectMapper objectMpper;
+  @Autowired
+  EventRepository eventRepository;
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+  @Autowired
+  EventLifecycleScheduler eventLifecycleScheduler;
+
+  @Before
+  public void setUp() {
+    eventRepository.deleteAll();
+  }
 
 
   @Test
@@ -194,5 +222,899 @@ public class EventControllerTests {
             ;
   }
 
+  @Test
+  @TestDescription("같은 Idempotency-Key 로 재시도하면 이벤트를 다시 만들지 않고 처음 응답을 돌려주는 테스트")
+  public void createEvent_IdempotencyKey_Replay() throws Exception {
+    EventDto eventDto = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+    String content = objectMpper.writeValueAsString(eventDto);
+
+    String location = mockMvc.perform(post("/api/events")
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-spring-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(content))
+            .andExpect(status().isCreated())
+            .andExpect(header().doesNotExist(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED))
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+    mockMvc.perform(post("/api/events")
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-spring-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(content))
+            .andDo(print())
+            .andExpect(status().isCreated())
+            .andExpect(header().string(HttpHeaders.LOCATION, location))
+            .andExpect(header().string(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED, "true"))
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaTypes.HAL_JSON_VALUE))
+            .andExpect(jsonPath("_links.self.href").value(location));
+
+    assertEquals(1, eventRepository.count());
+  }
+
+  @Test
+  @TestDescription("같은 Idempotency-Key 를 다른 요청에 쓰면 422 응답받기")
+  public void createEvent_IdempotencyKey_Reused() throws Exception {
+    Event event = generateEvent(1);
+    EventDto eventDto = toEventDto(event);
+
+    mockMvc.perform(post("/api/events")
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-event-reused")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMpper.writeValueAsString(eventDto)))
+            .andExpect(status().isCreated());
+
+    mockMvc.perform(post("/api/events")
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-event-reused")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMpper.writeValueAsString(eventDto.toBuilder().name("Other").build())))
+            .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  @TestDescription("다른 클라이언트가 같은 Idempotency-Key 를 보내면 처음 응답을 돌려주지 않고 따로 만드는 테스트")
+  public void createEvent_IdempotencyKey_PerClient() throws Exception {
+    String content = objectMpper.writeValueAsString(toEventDto(generateEvent(1)));
+    long count = eventRepository.count();
+
+    String location = mockMvc.perform(post("/api/events")
+                    .with(request -> { request.setRemoteAddr("10.0.0.1"); return request; })
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-event-shared")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(content))
+            .andExpect(status().isCreated())
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+    mockMvc.perform(post("/api/events")
+                    .with(request -> { request.setRemoteAddr("10.0.0.2"); return request; })
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "create-event-shared")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(content))
+            .andExpect(status().isCreated())
+            .andExpect(header().doesNotExist(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED))
+            .andExpect(header().string(HttpHeaders.LOCATION, Matchers.not(location)));
+
+    assertEquals(count + 2, eventRepository.count());
+  }
+
+  @Test
+  @TestDescription("만든 이벤트를 공개하면 시각에 맞춰 상태가 바뀌고, 다시 공개하면 409 응답받기")
+  public void publishEvent() throws Exception {
+    LocalDateTime now = LocalDateTime.now();
+    EventDto eventDto = toEventDto(generateEvent(1)).toBuilder()
+            .beginEnrollmentDateTime(now.minusDays(1))
+            .closeEnrollmentDateTime(now.plusDays(1))
+            .beginEventDateTime(now.plusDays(2))
+            .endEventDateTime(now.plusDays(3))
+            .build();
+    String response = mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMpper.writeValueAsString(eventDto)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("eventStatus").value(EventStatus.DRAFT.name()))
+            .andReturn().getResponse().getContentAsString();
+    int id = objectMpper.readTree(response).get("id").asInt();
+
+    // 공개 전에는 모집 시작 시각이 지나도 DRAFT 로 남는다
+    eventLifecycleScheduler.advance(now);
+    mockMvc.perform(get("/api/events/{id}", id).accept(MediaTypes.HAL_JSON))
+            .andExpect(jsonPath("eventStatus").value(EventStatus.DRAFT.name()));
+
+    mockMvc.perform(post("/api/events/{id}/publish", id))
+            .andDo(print())
+            .andExpect(status().isNoContent());
+    mockMvc.perform(get("/api/events/{id}", id).accept(MediaTypes.HAL_JSON))
+            .andExpect(jsonPath("eventStatus").value(EventStatus.PUBLISHED.name()));
+
+    eventLifecycleScheduler.advance(now);
+    mockMvc.perform(get("/api/events/{id}", id).accept(MediaTypes.HAL_JSON))
+            .andExpect(jsonPath("eventStatus").value(EventStatus.BEGAN_ENROLLMENT.name()));
+
+    mockMvc.perform(post("/api/events/{id}/publish", id))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$[0].code").value("alreadyPublished"));
+    mockMvc.perform(post("/api/events/{id}/publish", 123123))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @TestDescription("이벤트 생성 단계별 시간과 거절 코드를 Prometheus 형식으로 노출하는 테스트")
+  public void createEvent_Metrics() throws Exception {
+    EventDto eventDto = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .build();
+    mockMvc.perform(post("/api/events/")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMpper.writeValueAsString(eventDto)))
+            .andExpect(status().isCreated());
+    mockMvc.perform(post("/api/events/")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMpper.writeValueAsString(eventDto.toBuilder().basePrice(100000).build())))
+            .andExpect(status().isBadRequest());
+
+    mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(Matchers.containsString("events_create_stage_seconds_bucket{stage=\"save\"")))
+            .andExpect(content().string(Matchers.containsString("events_create_stage_seconds_count{stage=\"resource\",}")))
+            .andExpect(content().string(Matchers.containsString("events_rejections_total{code=\"wrongPrices\",}")))
+            .andExpect(content().string(Matchers.containsString("hikaricp_connections_acquire_seconds")))
+            .andExpect(content().string(Matchers.containsString("hibernate_statements_total")));
+  }
+
+  @Test
+  @TestDescription("여러 이벤트를 한 번에 생성하고 잘못된 이벤트는 개별적으로 거절하는 테스트")
+  public void createEvents_Batch() throws Exception {
+    EventDto valid = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+    EventDto wrongPrices = valid.toBuilder().basePrice(100000).build();
+    EventDto empty = EventDto.builder().build();
+
+    mockMvc.perform(post("/api/events/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMpper.writeValueAsString(List.of(valid, wrongPrices, empty, valid))))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$[0].id").exists())
+            .andExpect(jsonPath("$[0].errors").doesNotExist())
+            .andExpect(jsonPath("$[1].id").doesNotExist())
+            .andExpect(jsonPath("$[1].errors[0].code").value("wrongPrices"))
+            .andExpect(jsonPath("$[2].errors[0].code").exists())
+            .andExpect(jsonPath("$[3].index").value(3))
+            .andExpect(jsonPath("$[3].id").exists());
+  }
+
+  @Test
+  @TestDescription("NDJSON 스트림으로 여러 이벤트를 생성하는 테스트")
+  public void createEvents_Batch_Ndjson() throws Exception {
+    EventDto valid = EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .limitOfEnrollment(100)
+            .build();
+    String body = objectMpper.writeValueAsString(valid) + "\n"
+            + "{\"name\": \n"
+            + objectMpper.writeValueAsString(valid) + "\n";
+
+    mockMvc.perform(post("/api/events/batch")
+                    .contentType(EventController.NDJSON_VALUE)
+                    .content(body))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(3))
+            .andExpect(jsonPath("$[0].id").exists())
+            .andExpect(jsonPath("$[1].errors[0].code").value("malformedJson"))
+            .andExpect(jsonPath("$[2].id").exists());
+  }
+
+  @Test
+  @TestDescription("30개의 이벤트를 10개씩 두번째 페이지 조회하기")
+  public void queryEvents() throws Exception {
+    // Given
+    IntStream.range(0, 30).forEach(this::generateEvent);
+
+    // When & Then
+    this.mockMvc.perform(get("/api/events")
+                    .param("page", "1")
+                    .param("size", "10")
+                    .param("sort", "name,DESC"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page").exists())
+            .andExpect(jsonPath("page.totalElements").value(30))
+            .andExpect(jsonPath("_embedded.eventResourceList[0]._links.self").exists())
+            .andExpect(jsonPath("_links.self").exists())
+            .andExpect(jsonPath("_links.profile").exists())
+            .andDo(document("get-events",
+                    links(
+                            linkWithRel("first").description("link to first page"),
+                            linkWithRel("prev").description("link to previous page"),
+                            linkWithRel("self").description("link to self"),
+                            linkWithRel("next").description("link to next page"),
+                            linkWithRel("last").description("link to last page"),
+                            linkWithRel("profile").description("link to profile")
+                    ),
+                    requestParameters(
+                            parameterWithName("page").description("page to retrieve, starting from 0"),
+                            parameterWithName("size").description("size of the page"),
+                            parameterWithName("sort").description("sort order, e.g. name,DESC")
+                    ),
+                    relaxedResponseFields(
+                            fieldWithPath("_embedded.eventResourceList[].id").description("identifier of event"),
+                            fieldWithPath("page.size").description("size of the page"),
+                            fieldWithPath("page.totalElements").description("total number of events"),
+                            fieldWithPath("page.totalPages").description("total number of pages"),
+                            fieldWithPath("page.number").description("current page number")
+                    )
+            ));
+  }
+
+  @Test
+  @TestDescription("조건에 맞는 이벤트만 조회하기")
+  public void queryEvents_Filtered() throws Exception {
+    IntStream.range(0, 30).forEach(this::generateEvent);
+
+    this.mockMvc.perform(get("/api/events")
+                    .param("free", "true")
+                    .param("offline", "true")
+                    .param("eventFrom", "2018-11-28T00:00:00")
+                    .param("size", "100"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page.totalElements").value(5))
+            .andExpect(jsonPath("_embedded.eventResourceList[*].free", Matchers.everyItem(Matchers.is(true))))
+            .andExpect(jsonPath("_embedded.eventResourceList[*].offline", Matchers.everyItem(Matchers.is(true))));
+  }
+
+  @Test
+  @TestDescription("keyset 페이징으로 이벤트를 순서대로 조회하기")
+  public void queryEvents_Keyset() throws Exception {
+    List<Event> events = IntStream.range(0, 25).mapToObj(this::generateEvent).collect(Collectors.toList());
+
+    this.mockMvc.perform(get("/api/events")
+                    .param("after", String.valueOf(events.get(9).getId()))
+                    .param("size", "10"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_embedded.eventResourceList.length()").value(10))
+            .andExpect(jsonPath("_embedded.eventResourceList[0].id").value(events.get(10).getId()))
+            .andExpect(jsonPath("_links.next.href").value(Matchers.containsString("after=" + events.get(19).getId())))
+            .andExpect(jsonPath("_links.profile").exists());
+
+    this.mockMvc.perform(get("/api/events")
+                    .param("after", String.valueOf(events.get(19).getId()))
+                    .param("size", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_embedded.eventResourceList.length()").value(5))
+            .andExpect(jsonPath("_links.next").doesNotExist());
+  }
+
+  @Test
+  @TestDescription("keyset 페이징에 id 오름차순이 아닌 sort 를 주면 400 응답받기")
+  public void queryEvents_KeysetWithSort() throws Exception {
+    Event event = generateEvent(0);
+
+    this.mockMvc.perform(get("/api/events")
+                    .param("after", String.valueOf(event.getId()))
+                    .param("sort", "name,DESC"))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].code").value("unsupportedSort"));
+
+    this.mockMvc.perform(get("/api/events")
+                    .param("after", String.valueOf(event.getId()))
+                    .param("sort", "id"))
+            .andExpect(status().isOk());
+  }
+
+  @Test
+  @TestDescription("키워드로 이벤트를 검색하면 이름에 들어있는 이벤트가 먼저 나오는 테스트")
+  public void searchEvents() throws Exception {
+    IntStream.range(0, 10).forEach(this::generateEvent);
+    Event inDescription = generateEvent(100);
+    inDescription.setDescription("Kubernetes 운영 경험 공유");
+    this.eventRepository.save(inDescription);
+    Event inName = generateEvent(101);
+    inName.setName("Kubernetes 스터디");
+    this.eventRepository.save(inName);
+
+    this.mockMvc.perform(get("/api/events/search")
+                    .param("q", "kubernetes")
+                    .param("page", "0")
+                    .param("size", "10"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page.totalElements").value(2))
+            .andExpect(jsonPath("_embedded.eventResourceList[0].id").value(inName.getId()))
+            .andExpect(jsonPath("_embedded.eventResourceList[1].id").value(inDescription.getId()))
+            .andExpect(jsonPath("_embedded.eventResourceList[0]._links.self").exists())
+            .andExpect(jsonPath("_links.self").exists())
+            .andExpect(jsonPath("_links.profile").exists())
+            .andDo(document("search-events",
+                    links(
+                            linkWithRel("self").description("link to self"),
+                            linkWithRel("profile").description("link to profile")
+                    ),
+                    requestParameters(
+                            parameterWithName("q").description("keywords matched against name, location and description"),
+                            parameterWithName("page").description("page to retrieve, starting from 0"),
+                            parameterWithName("size").description("size of the page")
+                    ),
+                    relaxedResponseFields(
+                            fieldWithPath("_embedded.eventResourceList[].id").description("identifier of event"),
+                            fieldWithPath("page.totalElements").description("total number of matching events")
+                    )
+            ));
+  }
+
+  @Test
+  @TestDescription("모든 키워드가 들어있는 이벤트만 검색하고 수정된 내용으로 다시 검색되는 테스트")
+  public void searchEvents_AfterUpdate() throws Exception {
+    Event event = generateEvent(200);
+    event.setName("Spring Batch 입문");
+    this.eventRepository.save(event);
+
+    this.mockMvc.perform(get("/api/events/search").param("q", "spring batch"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page.totalElements").value(1));
+    this.mockMvc.perform(get("/api/events/search").param("q", "spring webflux"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page.totalElements").value(0));
+
+    EventDto eventDto = toEventDto(this.eventRepository.findById(event.getId()).get());
+    eventDto.setName("Spring WebFlux 입문");
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion() + 1))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(eventDto)))
+            .andExpect(status().isOk());
+
+    this.mockMvc.perform(get("/api/events/search").param("q", "spring webflux"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("_embedded.eventResourceList[0].name").value("Spring WebFlux 입문"));
+    this.mockMvc.perform(get("/api/events/search").param("q", "batch"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page.totalElements").value(0));
+  }
+
+  @Test
+  @TestDescription("검색어가 비어있으면 400 응답받기")
+  public void searchEvents_Bad_Request() throws Exception {
+    this.mockMvc.perform(get("/api/events/search").param("q", " "))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].code").value("emptyQuery"));
+  }
+
+  @Test
+  @TestDescription("기존의 이벤트를 하나 조회하기")
+  public void getEvent() throws Exception {
+    // Given
+    Event event = this.generateEvent(100);
+
+    // When & Then
+    this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").exists())
+            .andExpect(jsonPath("id").value(event.getId()))
+            .andExpect(jsonPath("_links.self").exists())
+            .andExpect(jsonPath("_links.profile").exists())
+            .andExpect(header().string(HttpHeaders.ETAG, ETags.of(event.getVersion())))
+            .andDo(document("get-event",
+                    responseHeaders(
+                            headerWithName(HttpHeaders.ETAG).description("ETag derived from the event version")
+                    ),
+                    links(
+                            linkWithRel("self").description("link to self"),
+                            linkWithRel("profile").description("link to profile")
+                    ),
+                    relaxedResponseFields(
+                            fieldWithPath("id").description("identifier of event"),
+                            fieldWithPath("name").description("name of event"),
+                            fieldWithPath("eventStatus").description("eventStatus")
+                    )
+            ));
+  }
+
+  @Test
+  @TestDescription("Accept 헤더로 CBOR 를 요청하면 HAL 과 같은 구조의 CBOR 로 응답받기")
+  public void getEvent_Cbor() throws Exception {
+    Event event = this.generateEvent(100);
+
+    byte[] body = this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                    .accept(BinaryFormatConfig.CBOR_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryFormatConfig.CBOR_VALUE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + event.getVersion() + "-cbor\""))
+            .andExpect(header().string(HttpHeaders.VARY, Matchers.containsString(HttpHeaders.ACCEPT)))
+            .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode json = new ObjectMapper(new CBORFactory()).readTree(body);
+    assertEquals(event.getId().intValue(), json.get("id").asInt());
+    assertEquals("event 100", json.get("name").asText());
+    assertEquals(2018, json.get("beginEnrollmentDateTime").get(0).asInt());
+    assertTrue(json.get("_links").get("self").get("href").asText().endsWith("/api/events/" + event.getId()));
+    byte[] halJson = this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andReturn().getResponse().getContentAsByteArray();
+    assertTrue(body.length < halJson.length);
+
+    // JSON 의 ETag 로 CBOR 를 재검증하면 304 가 아니라 CBOR 본문을 받는다
+    this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                    .accept(BinaryFormatConfig.CBOR_VALUE)
+                    .header(HttpHeaders.IF_NONE_MATCH, ETags.of(event.getVersion())))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryFormatConfig.CBOR_VALUE));
+    this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                    .accept(BinaryFormatConfig.CBOR_VALUE)
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"" + event.getVersion() + "-cbor\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.VARY, Matchers.containsString(HttpHeaders.ACCEPT)));
+  }
+
+  @Test
+  @TestDescription("Accept 헤더로 Smile 을 요청하면 목록과 페이지 정보를 Smile 로 응답받기")
+  public void queryEvents_Smile() throws Exception {
+    IntStream.range(0, 30).forEach(this::generateEvent);
+
+    byte[] body = this.mockMvc.perform(get("/api/events")
+                    .param("size", "10")
+                    .accept(BinaryFormatConfig.SMILE_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BinaryFormatConfig.SMILE_VALUE))
+            .andExpect(header().string(HttpHeaders.VARY, Matchers.containsString(HttpHeaders.ACCEPT)))
+            .andReturn().getResponse().getContentAsByteArray();
+
+    JsonNode json = new ObjectMapper(new SmileFactory()).readTree(body);
+    assertEquals(30, json.get("page").get("totalElements").asInt());
+    assertEquals(10, json.get("_embedded").get("eventResourceList").size());
+    assertTrue(json.get("_links").has("next"));
+  }
+
+  @Test
+  @TestDescription("없는 이벤트는 조회했을 때 404 응답받기")
+  public void getEvent404() throws Exception {
+    this.mockMvc.perform(get("/api/events/11883"))
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @TestDescription("이벤트가 바뀌지 않았으면 304 응답받기")
+  public void getEvent_NotModified() throws Exception {
+    Event event = this.generateEvent(100);
+
+    this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_NONE_MATCH, ETags.of(event.getVersion())))
+            .andDo(print())
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, ETags.of(event.getVersion())))
+            .andExpect(content().string(""));
+
+    this.mockMvc.perform(get("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_NONE_MATCH, ETags.of(event.getVersion() + 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("id").value(event.getId()));
+  }
+
+  @Test
+  @TestDescription("If-Match 없이 이벤트를 수정하면 428 응답받기")
+  public void updateEvent428_Without_IfMatch() throws Exception {
+    Event event = this.generateEvent(200);
+
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(toEventDto(event))))
+            .andExpect(status().isPreconditionRequired());
+  }
+
+  @Test
+  @TestDescription("If-Match 가 현재 버전과 다르면 412 응답받기")
+  public void updateEvent412_Stale_IfMatch() throws Exception {
+    Event event = this.generateEvent(200);
+
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion() + 1))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(toEventDto(event))))
+            .andExpect(status().isPreconditionFailed())
+            .andExpect(header().string(HttpHeaders.ETAG, ETags.of(event.getVersion())));
+  }
+
+  @Test
+  @TestDescription("이벤트를 정상적으로 수정하기")
+  public void updateEvent() throws Exception {
+    // Given
+    Event event = this.generateEvent(200);
+    EventDto eventDto = toEventDto(event);
+    String eventName = "Updated Event";
+    eventDto.setName(eventName);
+    eventDto.setBasePrice(0);
+    eventDto.setMaxPrice(0);
+
+    // When & Then
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(eventDto)))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value(eventName))
+            .andExpect(jsonPath("free").value(true))
+            .andExpect(jsonPath("_links.self").exists())
+            .andExpect(header().string(HttpHeaders.ETAG, ETags.of(event.getVersion() + 1)))
+            .andDo(document("update-event",
+                    links(
+                            linkWithRel("self").description("link to self"),
+                            linkWithRel("profile").description("link to profile")
+                    ),
+                    requestHeaders(
+                            headerWithName(HttpHeaders.IF_MATCH).description("ETag of the event being updated"),
+                            headerWithName(HttpHeaders.CONTENT_TYPE).description("content type header")
+                    ),
+                    responseHeaders(
+                            headerWithName(HttpHeaders.ETAG).description("ETag of the updated event")
+                    ),
+                    relaxedRequestFields(
+                            fieldWithPath("name").description("Name of event")
+                    )
+            ));
+  }
+
+  @Test
+  @TestDescription("입력값이 비어있는 경우에 이벤트 수정 실패")
+  public void updateEvent400_Empty() throws Exception {
+    Event event = this.generateEvent(200);
+    EventDto eventDto = new EventDto();
+
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(eventDto)))
+            .andDo(print())
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @TestDescription("입력값이 잘못된 경우에 이벤트 수정 실패")
+  public void updateEvent400_Wrong() throws Exception {
+    Event event = this.generateEvent(200);
+    EventDto eventDto = toEventDto(event);
+    eventDto.setBasePrice(20000);
+    eventDto.setMaxPrice(1000);
+
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(eventDto)))
+            .andDo(print())
+            .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @TestDescription("존재하지 않는 이벤트 수정 실패")
+  public void updateEvent404() throws Exception {
+    Event event = this.generateEvent(200);
+    EventDto eventDto = toEventDto(event);
+
+    this.mockMvc.perform(put("/api/events/123123")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(eventDto)))
+            .andDo(print())
+            .andExpect(status().isNotFound());
+  }
+
+  @Test
+  @TestDescription("JSON Merge Patch 로 이벤트의 일부를 수정하기")
+  public void patchEvent() throws Exception {
+    Event event = this.generateEvent(201);
+
+    this.mockMvc.perform(patch("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(EventController.MERGE_PATCH_VALUE)
+                    .content("{\"name\":\"Patched Event\",\"basePrice\":0,\"maxPrice\":0}"))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value("Patched Event"))
+            .andExpect(jsonPath("description").value(event.getDescription()))
+            .andExpect(jsonPath("location").value(event.getLocation()))
+            .andExpect(jsonPath("free").value(true))
+            .andExpect(jsonPath("_links.profile.href").value(EventLinks.PROFILE_PATCH.getHref()))
+            .andExpect(header().string(HttpHeaders.ETAG, ETags.of(event.getVersion() + 1)))
+            .andDo(document("patch-event",
+                    links(
+                            linkWithRel("self").description("link to self"),
+                            linkWithRel("profile").description("link to profile")
+                    ),
+                    requestHeaders(
+                            headerWithName(HttpHeaders.IF_MATCH).description("ETag of the event being patched"),
+                            headerWithName(HttpHeaders.CONTENT_TYPE).description("application/merge-patch+json")
+                    ),
+                    responseHeaders(
+                            headerWithName(HttpHeaders.ETAG).description("ETag of the patched event")
+                    ),
+                    relaxedRequestFields(
+                            fieldWithPath("name").description("New name of event"),
+                            fieldWithPath("basePrice").description("New base price of event"),
+                            fieldWithPath("maxPrice").description("New max price of event")
+                    )
+            ));
+  }
+
+  @Test
+  @TestDescription("patch 는 바뀐 컬럼만 UPDATE 하므로 다른 컬럼은 덮어쓰지 않는다")
+  public void patchEvent_UpdatesDirtyColumnsOnly() throws Exception {
+    Event event = this.generateEvent(202);
+    // 캐시에 남은 이벤트와 다르게 다른 컬럼을 DB 에서만 바꿔둔다
+    this.jdbcTemplate.update("update event set description = ? where id = ?", "changed elsewhere", event.getId());
+
+    this.mockMvc.perform(patch("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(EventController.MERGE_PATCH_VALUE)
+                    .content("{\"name\":\"Patched Event\"}"))
+            .andExpect(status().isOk());
+
+    assertEquals("changed elsewhere", this.jdbcTemplate.queryForObject(
+            "select description from event where id = ?", String.class, event.getId()));
+    assertEquals("Patched Event", this.jdbcTemplate.queryForObject(
+            "select name from event where id = ?", String.class, event.getId()));
+  }
+
+  @Test
+  @TestDescription("patch 로 바꾼 값이 제약 조건이나 규칙을 어기면 400 응답받기")
+  public void patchEvent400() throws Exception {
+    Event event = this.generateEvent(203);
+
+    this.mockMvc.perform(patch("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(EventController.MERGE_PATCH_VALUE)
+                    .content("{\"name\":null}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].field").value("name"))
+            .andExpect(jsonPath("$[0].code").value("NotEmpty"));
+    this.mockMvc.perform(patch("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(EventController.MERGE_PATCH_VALUE)
+                    .content("{\"basePrice\":20000}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].code").value("wrongPrices"));
+    this.mockMvc.perform(patch("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(EventController.MERGE_PATCH_VALUE)
+                    .content("{\"unknown\":1}"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].code").value("wrongPatch"));
+  }
+
+  @Test
+  @TestDescription("If-Match 없이 patch 하면 428 응답받기")
+  public void patchEvent428_Without_IfMatch() throws Exception {
+    Event event = this.generateEvent(204);
+
+    this.mockMvc.perform(patch("/api/events/{id}", event.getId())
+                    .contentType(EventController.MERGE_PATCH_VALUE)
+                    .content("{\"name\":\"Patched Event\"}"))
+            .andExpect(status().isPreconditionRequired());
+  }
+
+  @Test
+  @TestDescription("수정 후에는 캐시된 이벤트 대신 수정된 이벤트를 조회하기")
+  public void getEvent_AfterUpdate_EvictsCache() throws Exception {
+    Event event = this.generateEvent(300);
+    this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andExpect(jsonPath("name").value("event 300"));
+
+    EventDto eventDto = toEventDto(event);
+    eventDto.setName("Updated Event");
+    this.mockMvc.perform(put("/api/events/{id}", event.getId())
+                    .header(HttpHeaders.IF_MATCH, ETags.of(event.getVersion()))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(this.objectMpper.writeValueAsString(eventDto)))
+            .andExpect(status().isOk());
+
+    this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andExpect(jsonPath("name").value("Updated Event"));
+    this.mockMvc.perform(get("/actuator/metrics/cache.gets").param("tag", "cache:events"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("availableTags[?(@.tag == 'result')].values[*]",
+                    Matchers.hasItems("hit", "miss")));
+  }
+
+  @Test
+  @TestDescription("전체 이벤트를 NDJSON 으로 내보내기")
+  public void exportEvents_Ndjson() throws Exception {
+    IntStream.range(0, 12).forEach(this::generateEvent);
+
+    String body = this.mockMvc.perform(get("/api/events/export")
+                    .accept(EventController.NDJSON_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(EventController.NDJSON_VALUE))
+            .andReturn().getResponse().getContentAsString();
+
+    String[] lines = body.split("\n");
+    assertEquals(12, lines.length);
+    EventDto first = objectMpper.readerFor(EventDto.class)
+            .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readValue(lines[0]);
+    assertEquals("event 0", first.getName());
+    assertEquals(LocalDateTime.of(2018, 11, 23, 14, 21), first.getBeginEnrollmentDateTime());
+  }
+
+  @Test
+  @TestDescription("전체 이벤트를 CSV 로 내보내기")
+  public void exportEvents_Csv() throws Exception {
+    Event event = generateEvent(0);
+    event.setName("Spring, \"Boot\"");
+    eventRepository.save(event);
+    generateEvent(1);
+
+    String body = this.mockMvc.perform(get("/api/events/export")
+                    .accept(EventController.CSV_VALUE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith(EventController.CSV_VALUE))
+            .andReturn().getResponse().getContentAsString();
+
+    String[] lines = body.split("\n");
+    assertEquals(3, lines.length);
+    assertTrue(lines[0].startsWith("id,name,description,"));
+    assertTrue(lines[1].startsWith(event.getId() + ",\"Spring, \"\"Boot\"\"\",test event,2018-11-23T14:21:00,"));
+  }
+
+  @Test
+  @TestDescription("모집 중인 이벤트에 참가하기")
+  public void enroll() throws Exception {
+    Event event = generateOpenEvent(2);
+
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId()))
+            .andDo(print())
+            .andExpect(status().isNoContent());
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId()))
+            .andExpect(status().isNoContent());
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId()))
+            .andDo(print())
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$[0].code").value("enrollmentFull"));
+
+    this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andExpect(jsonPath("numberOfEnrollments").value(2));
+  }
+
+  @Test
+  @TestDescription("같은 Idempotency-Key 로 다시 보낸 참가 요청은 한 번만 참가한다")
+  public void enroll_IdempotencyKey() throws Exception {
+    Event event = generateOpenEvent(2);
+
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId())
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "enroll-once"))
+            .andExpect(status().isNoContent());
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId())
+                    .header(IdempotencyKeyFilter.IDEMPOTENCY_KEY, "enroll-once"))
+            .andExpect(status().isNoContent())
+            .andExpect(header().string(IdempotencyKeyFilter.IDEMPOTENT_REPLAYED, "true"));
+
+    this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andExpect(jsonPath("numberOfEnrollments").value(1));
+  }
+
+  @Test
+  @TestDescription("모집 기간이 아닌 이벤트에는 참가할 수 없다")
+  public void enroll_Closed() throws Exception {
+    Event event = generateEvent(0);
+    event.setEventStatus(EventStatus.PUBLISHED);
+    this.eventRepository.save(event);
+
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId()))
+            .andDo(print())
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$[0].code").value("enrollmentClosed"));
+  }
+
+  @Test
+  @TestDescription("공개하지 않은 이벤트와 모집이 끝난 상태의 이벤트에는 모집 기간 안이라도 참가할 수 없다")
+  public void enroll_NotEnrollableStatus() throws Exception {
+    Event event = generateOpenEvent(2);
+    event.setEventStatus(EventStatus.DRAFT);
+    this.eventRepository.save(event);
+
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId()))
+            .andDo(print())
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$[0].code").value("notPublished"));
+
+    event = this.eventRepository.findById(event.getId()).orElseThrow();
+    event.setEventStatus(EventStatus.ENDED);
+    this.eventRepository.save(event);
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", event.getId()))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$[0].code").value("enrollmentClosed"));
+
+    this.mockMvc.perform(get("/api/events/{id}", event.getId()))
+            .andExpect(jsonPath("numberOfEnrollments").value(0));
+  }
+
+  @Test
+  @TestDescription("없는 이벤트에 참가하면 404 응답받기")
+  public void enroll404() throws Exception {
+    this.mockMvc.perform(post("/api/events/{id}/enrollments", 123123))
+            .andExpect(status().isNotFound());
+  }
+
+  private Event generateOpenEvent(int limitOfEnrollment) {
+    LocalDateTime now = LocalDateTime.now();
+    Event event = generateEvent(0);
+    event.setBeginEnrollmentDateTime(now.minusDays(1));
+    event.setCloseEnrollmentDateTime(now.plusDays(1));
+    event.setBeginEventDateTime(now.plusDays(2));
+    event.setEndEventDateTime(now.plusDays(3));
+    event.setLimitOfEnrollment(limitOfEnrollment);
+    event.setEventStatus(EventStatus.PUBLISHED);
+    return this.eventRepository.save(event);
+  }
+
+  private EventDto toEventDto(Event event) {
+    return EventDto.builder()
+            .name(event.getName())
+            .description(event.getDescription())
+            .beginEnrollmentDateTime(event.getBeginEnrollmentDateTime())
+            .closeEnrollmentDateTime(event.getCloseEnrollmentDateTime())
+            .beginEventDateTime(event.getBeginEventDateTime())
+            .endEventDateTime(event.getEndEventDateTime())
+            .location(event.getLocation())
+            .basePrice(event.getBasePrice())
+            .maxPrice(event.getMaxPrice())
+            .limitOfEnrollment(event.getLimitOfEnrollment())
+            .build();
+  }
+
+  private Event generateEvent(int index) {
+    Event event = Event.builder()
+            .name("event " + index)
+            .description("test event")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21).plusDays(index % 3))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21).plusDays(index % 3))
+            .basePrice(index % 2 == 0 ? 0 : 100)
+            .maxPrice(index % 2 == 0 ? 0 : 200)
+            .limitOfEnrollment(100)
+            .location(index % 3 == 0 ? null : "강남역")
+            .eventStatus(EventStatus.DRAFT)
+            .build();
+    event.update();
+    return this.eventRepository.save(event);
+  }
 
-}
\ No newline at end of file
+}
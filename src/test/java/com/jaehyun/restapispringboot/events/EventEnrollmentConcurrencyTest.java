@@ -0,0 +1,83 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class EventEnrollmentConcurrencyTest {
+
+  private static final Logger log = LoggerFactory.getLogger(EventEnrollmentConcurrencyTest.class);
+
+  private static final int THREADS = 32;
+  private static final int ATTEMPTS_PER_THREAD = 100;
+  private static final int LIMIT = 500;
+
+  @Autowired
+  EventRepository eventRepository;
+
+  @Test
+  @TestDescription("여러 스레드가 동시에 참가해도 limitOfEnrollment 를 넘지 않는 테스트")
+  public void enroll_NeverOversold() throws Exception {
+    LocalDateTime now = LocalDateTime.now();
+    Event event = Event.builder()
+            .name("popular event")
+            .description("everybody wants in")
+            .beginEnrollmentDateTime(now.minusDays(1))
+            .closeEnrollmentDateTime(now.plusDays(1))
+            .beginEventDateTime(now.plusDays(2))
+            .endEventDateTime(now.plusDays(3))
+            .limitOfEnrollment(LIMIT)
+            .eventStatus(EventStatus.BEGAN_ENROLLMENT)
+            .build();
+    Integer id = eventRepository.save(event).getId();
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicInteger enrolled = new AtomicInteger();
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      futures.add(executor.submit(() -> {
+        start.await();
+        for (int j = 0; j < ATTEMPTS_PER_THREAD; j++) {
+          enrolled.addAndGet(eventRepository.enroll(id, LocalDateTime.now()));
+        }
+        return null;
+      }));
+    }
+
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+    long elapsed = System.nanoTime() - startedAt;
+    executor.shutdown();
+
+    int attempts = THREADS * ATTEMPTS_PER_THREAD;
+    log.debug("enrollment: {} attempts from {} threads in {} ms ({} attempts/s), {} enrolled",
+            attempts, THREADS, TimeUnit.NANOSECONDS.toMillis(elapsed),
+            Math.round(attempts / (elapsed / 1_000_000_000.0)), enrolled.get());
+
+    assertThat(enrolled.get()).isEqualTo(LIMIT);
+    assertThat(eventRepository.findById(id).orElseThrow().getNumberOfEnrollments()).isEqualTo(LIMIT);
+  }
+}
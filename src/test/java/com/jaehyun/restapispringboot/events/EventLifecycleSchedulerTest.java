@@ -0,0 +1,94 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+public class EventLifecycleSchedulerTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 15, 12, 0);
+
+  @Autowired
+  EventRepository eventRepository;
+
+  @Autowired
+  EventLifecycleScheduler eventLifecycleScheduler;
+
+  @Autowired
+  EventCache eventCache;
+
+  @Before
+  public void setUp() {
+    eventRepository.deleteAll();
+  }
+
+  @Test
+  @TestDescription("시각이 지난 단계에 맞춰 이벤트 상태를 옮기는 테스트")
+  public void advance() {
+    Integer notYet = save(EventStatus.PUBLISHED, NOW.plusDays(1));
+    Integer enrolling = save(EventStatus.PUBLISHED, NOW.minusHours(1));
+    Integer closed = save(EventStatus.BEGAN_ENROLLMENT, NOW.minusHours(36));
+    Integer started = save(EventStatus.CLOSED_ENROLLMENT, NOW.minusHours(60));
+    Integer ended = save(EventStatus.PUBLISHED, NOW.minusDays(10));
+    Integer draft = save(EventStatus.DRAFT, NOW.minusDays(10));
+
+    assertThat(eventLifecycleScheduler.advance(NOW)).isEqualTo(4);
+
+    assertThat(statusOf(notYet)).isEqualTo(EventStatus.PUBLISHED);
+    assertThat(statusOf(enrolling)).isEqualTo(EventStatus.BEGAN_ENROLLMENT);
+    assertThat(statusOf(closed)).isEqualTo(EventStatus.CLOSED_ENROLLMENT);
+    assertThat(statusOf(started)).isEqualTo(EventStatus.STARTED);
+    assertThat(statusOf(ended)).isEqualTo(EventStatus.ENDED);
+    assertThat(statusOf(draft)).isEqualTo(EventStatus.DRAFT);
+  }
+
+  @Test
+  @TestDescription("이미 전이된 이벤트는 다시 갱신하지 않는 테스트")
+  public void advance_Idempotent() {
+    Integer id = save(EventStatus.PUBLISHED, NOW.minusHours(1));
+    Long version = eventRepository.findVersionById(id).orElseThrow();
+
+    assertThat(eventLifecycleScheduler.advance(NOW)).isEqualTo(1);
+    assertThat(eventLifecycleScheduler.advance(NOW)).isEqualTo(0);
+    assertThat(eventRepository.findVersionById(id)).contains(version + 1);
+  }
+
+  @Test
+  @TestDescription("상태가 바뀌면 캐시된 이벤트를 비우는 테스트")
+  public void advance_EvictsCache() {
+    Integer id = save(EventStatus.PUBLISHED, NOW.minusHours(1));
+    assertThat(eventCache.findById(id).map(Event::getEventStatus)).contains(EventStatus.PUBLISHED);
+
+    eventLifecycleScheduler.advance(NOW);
+
+    assertThat(eventCache.findById(id).map(Event::getEventStatus)).contains(EventStatus.BEGAN_ENROLLMENT);
+  }
+
+  // beginEnrollment 시각을 기준으로 이후 단계는 하루씩 뒤에 둔다
+  private Integer save(EventStatus status, LocalDateTime beginEnrollment) {
+    Event event = Event.builder()
+            .name("lifecycle")
+            .description("lifecycle test")
+            .beginEnrollmentDateTime(beginEnrollment)
+            .closeEnrollmentDateTime(beginEnrollment.plusDays(1))
+            .beginEventDateTime(beginEnrollment.plusDays(2))
+            .endEventDateTime(beginEnrollment.plusDays(3))
+            .eventStatus(status)
+            .build();
+    return eventRepository.save(event).getId();
+  }
+
+  private EventStatus statusOf(Integer id) {
+    return eventRepository.findById(id).orElseThrow().getEventStatus();
+  }
+}
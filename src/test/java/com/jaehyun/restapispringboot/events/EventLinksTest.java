@@ -0,0 +1,77 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+public class EventLinksTest {
+
+  private final EventLinks eventLinks = new EventLinks();
+
+  @After
+  public void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void links_SameAsLinkTo_DefaultRequest() {
+    bind(new MockHttpServletRequest());
+
+    assertSameAsLinkTo(10);
+  }
+
+  @Test
+  public void links_SameAsLinkTo_HostPortAndContextPath() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setScheme("https");
+    request.setServerName("events.example.com");
+    request.setServerPort(8443);
+    request.setContextPath("/app");
+    bind(request);
+
+    assertSameAsLinkTo(11883);
+    assertThat(eventLinks.eventsHref()).isEqualTo("https://events.example.com:8443/app/api/events");
+  }
+
+  @Test
+  public void links_SameAsLinkTo_ForwardedHeaders() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("X-Forwarded-Proto", "https");
+    request.addHeader("X-Forwarded-Host", "api.example.com");
+    request.addHeader("X-Forwarded-Port", "443");
+    bind(request);
+
+    assertSameAsLinkTo(1);
+  }
+
+  @Test
+  public void eventsHref_ComputedOncePerRequest() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    bind(request);
+    String first = eventLinks.eventsHref();
+
+    // 같은 요청 안에서는 호스트가 바뀌어도 처음 계산한 값을 쓴다
+    request.setServerName("other.example.com");
+    assertThat(eventLinks.eventsHref()).isSameAs(first);
+
+    bind(new MockHttpServletRequest("GET", "/api/events"));
+    assertThat(eventLinks.eventsHref()).isEqualTo(linkTo(EventController.class).toUri().toString());
+  }
+
+  private void assertSameAsLinkTo(Integer id) {
+    assertThat(eventLinks.eventsHref()).isEqualTo(linkTo(EventController.class).withRel("query-events").getHref());
+    assertThat(eventLinks.self(id)).isEqualTo(linkTo(EventController.class).slash(id).withSelfRel());
+    assertThat(eventLinks.queryEvents()).isEqualTo(linkTo(EventController.class).withRel("query-events"));
+    assertThat(eventLinks.updateEvent(id)).isEqualTo(linkTo(EventController.class).slash(id).withRel("update-event"));
+    assertThat(eventLinks.eventUri(id)).isEqualTo(linkTo(EventController.class).slash(id).toUri());
+  }
+
+  private void bind(MockHttpServletRequest request) {
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+}
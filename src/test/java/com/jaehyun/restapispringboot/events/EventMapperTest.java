@@ -0,0 +1,86 @@
+package com.jaehyun.restapispringboot.events;
+
+import org.junit.Test;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.beans.PropertyDescriptor;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventMapperTest {
+
+  private final EventMapper eventMapper = new EventMapperImpl();
+
+  @Test
+  public void toEvent_MapsEveryEventDtoProperty() {
+    EventDto eventDto = populatedEventDto();
+
+    Event event = eventMapper.toEvent(eventDto);
+
+    assertAllPropertiesMapped(eventDto, event);
+    assertThat(event.getId()).isNull();
+    assertThat(event.getEventStatus()).isEqualTo(EventStatus.DRAFT);
+  }
+
+  @Test
+  public void update_MapsEveryEventDtoProperty() {
+    EventDto eventDto = populatedEventDto();
+    Event event = Event.builder()
+            .id(10)
+            .eventStatus(EventStatus.PUBLISHED)
+            .version(3L)
+            .build();
+
+    eventMapper.update(eventDto, event);
+
+    assertAllPropertiesMapped(eventDto, event);
+    assertThat(event.getId()).isEqualTo(10);
+    assertThat(event.getEventStatus()).isEqualTo(EventStatus.PUBLISHED);
+    assertThat(event.getVersion()).isEqualTo(3L);
+  }
+
+  /**
+   * EventDto 의 모든 프로퍼티를 기본값이 아닌 서로 다른 값으로 채운다. 새 필드가 추가되면 자동으로 포함된다.
+   */
+  private EventDto populatedEventDto() {
+    EventDto eventDto = new EventDto();
+    BeanWrapper source = new BeanWrapperImpl(eventDto);
+    int seed = 1;
+    for (PropertyDescriptor property : source.getPropertyDescriptors()) {
+      if (property.getWriteMethod() == null) {
+        continue;
+      }
+      source.setPropertyValue(property.getName(), sampleValue(property.getPropertyType(), property.getName(), seed++));
+    }
+    return eventDto;
+  }
+
+  private Object sampleValue(Class<?> type, String name, int seed) {
+    if (type == String.class) {
+      return name + "-" + seed;
+    }
+    if (type == int.class || type == Integer.class) {
+      return seed;
+    }
+    if (type == LocalDateTime.class) {
+      return LocalDateTime.of(2020, 1, 1, 0, 0).plusDays(seed);
+    }
+    throw new IllegalStateException("No sample value for EventDto." + name + " of type " + type);
+  }
+
+  private void assertAllPropertiesMapped(EventDto eventDto, Event event) {
+    BeanWrapper source = new BeanWrapperImpl(eventDto);
+    BeanWrapper target = new BeanWrapperImpl(event);
+    for (PropertyDescriptor property : source.getPropertyDescriptors()) {
+      if (property.getWriteMethod() == null) {
+        continue;
+      }
+      String name = property.getName();
+      assertThat(target.isReadableProperty(name)).as("Event has no property for EventDto.%s", name).isTrue();
+      assertThat(target.getPropertyValue(name)).as("EventDto.%s is not mapped", name)
+              .isEqualTo(source.getPropertyValue(name));
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventQueueTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  @Test
+  @TestDescription("반영하지 않은 레코드는 다시 열면 그대로 읽고 commit 한 레코드는 읽지 않는다")
+  public void reopen_ReplaysUncommitted() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    EventQueue queue = open(directory);
+    queue.append(bytes("first"));
+    queue.append(bytes("second"));
+    queue.append(bytes("third"));
+    EventQueue.Batch batch = queue.read(1);
+    queue.commit(batch.getEnd());
+    queue.close();
+
+    EventQueue reopened = open(directory);
+    assertThat(strings(reopened.read(10))).containsExactly("second", "third");
+    reopened.commit(reopened.read(10).getEnd());
+    assertThat(reopened.isEmpty()).isTrue();
+    reopened.close();
+
+    assertThat(strings(open(directory).read(10))).isEmpty();
+  }
+
+  @Test
+  @TestDescription("쓰다가 깨진 레코드부터는 버리고 그 자리에 이어서 쓴다")
+  public void reopen_DropsTornRecord() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    EventQueue queue = open(directory);
+    queue.append(bytes("complete"));
+    queue.append(bytes("torn"));
+    queue.close();
+    try (RandomAccessFile file = new RandomAccessFile(directory.resolve("events.queue").toFile(), "rw")) {
+      // 두 번째 레코드 본문의 마지막 바이트
+      file.seek(8 + "complete".length() + 8 + "torn".length() - 1);
+      file.write('x');
+    }
+
+    EventQueue reopened = open(directory);
+    assertThat(strings(reopened.read(10))).containsExactly("complete");
+    reopened.append(bytes("next"));
+    assertThat(strings(reopened.read(10))).containsExactly("complete", "next");
+  }
+
+  @Test
+  @TestDescription("모두 반영하면 처음으로 되감고 되감기 전의 레코드는 다시 읽지 않는다")
+  public void commit_RewindsWhenDrained() throws Exception {
+    Path directory = folder.getRoot().toPath();
+    EventQueue queue = new EventQueue(directory, 48, false);
+    queue.open();
+    assertThat(queue.append(bytes("0123456789"))).isTrue();
+    assertThat(queue.append(bytes("0123456789"))).isTrue();
+    assertThat(queue.append(bytes("0123456789"))).isFalse();
+
+    queue.commit(queue.read(10).getEnd());
+    assertThat(queue.append(bytes("abc"))).isTrue();
+    queue.close();
+
+    EventQueue reopened = new EventQueue(directory, 48, false);
+    reopened.open();
+    assertThat(strings(reopened.read(10))).containsExactly("abc");
+  }
+
+  private EventQueue open(Path directory) throws Exception {
+    EventQueue queue = new EventQueue(directory, 4096, true);
+    queue.open();
+    return queue;
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> strings(EventQueue.Batch batch) {
+    return batch.getPayloads().stream().map(payload -> new String(payload, StandardCharsets.UTF_8))
+            .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,104 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.ObjectError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import javax.validation.Validation;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class EventValidatorTest {
+
+  private final EventValidator eventValidator = new EventValidator();
+  private final SpringValidatorAdapter validator =
+          new SpringValidatorAdapter(Validation.buildDefaultValidatorFactory().getValidator());
+
+  @Test
+  @TestDescription("올바른 입력은 구조 검사도 통과한다")
+  public void firstRejection_Valid() {
+    assertThat(eventValidator.firstRejection(validEvent().build())).isNull();
+  }
+
+  @Test
+  @TestDescription("구조 검사에서 고른 사유는 전체 검증이 내는 오류 중 하나다")
+  public void firstRejection_SameRulesAsFullValidation() {
+    List<EventDto> invalid = List.of(
+            EventDto.builder().build(),
+            validEvent().name("").build(),
+            validEvent().endEventDateTime(null).build(),
+            validEvent().limitOfEnrollment(-1).build(),
+            validEvent().basePrice(10000).maxPrice(200).build(),
+            validEvent().endEventDateTime(LocalDateTime.of(2018, 11, 24, 0, 0)).build());
+
+    for (EventDto eventDto : invalid) {
+      EventRejection rejection = eventValidator.firstRejection(eventDto);
+      assertThat(rejection).isNotNull();
+      assertThat(fullValidationCodes(eventDto)).contains(rejection.getCode());
+    }
+  }
+
+  @Test
+  @TestDescription("거절 응답은 미리 만들어둔 RFC 7807 본문이다")
+  public void rejection_ProblemResponse() throws Exception {
+    ResponseEntity<byte[]> response = EventRejection.NAME_EMPTY.toResponse();
+
+    assertThat(response.getStatusCodeValue()).isEqualTo(400);
+    assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+    assertThat(response.getBody()).isSameAs(EventRejection.NAME_EMPTY.toResponse().getBody());
+    JsonNode problem = new ObjectMapper().readTree(response.getBody());
+    assertThat(problem.get("type").asText()).isEqualTo(EventRejection.TYPE);
+    assertThat(problem.get("status").asInt()).isEqualTo(400);
+    assertThat(problem.get("field").asText()).isEqualTo("name");
+    assertThat(problem.get("code").asText()).isEqualTo("NotEmpty");
+  }
+
+  @Test
+  @TestDescription("부분 수정에서는 바뀐 필드가 걸린 규칙만 검사한다")
+  public void validate_ChangedFieldsOnly() {
+    // 날짜 규칙은 어기지만 가격만 바뀐 경우
+    EventDto eventDto = validEvent().endEventDateTime(LocalDateTime.of(2018, 11, 24, 0, 0)).basePrice(300).build();
+
+    Errors priceChanged = new BeanPropertyBindingResult(eventDto, "eventDto");
+    eventValidator.validate(eventDto, Set.of("basePrice"), priceChanged);
+    assertThat(priceChanged.getAllErrors()).extracting(ObjectError::getCode).containsExactly("wrongPrices");
+
+    Errors nameChanged = new BeanPropertyBindingResult(eventDto, "eventDto");
+    eventValidator.validate(eventDto, Set.of("name"), nameChanged);
+    assertThat(nameChanged.hasErrors()).isFalse();
+  }
+
+  private List<String> fullValidationCodes(EventDto eventDto) {
+    Errors errors = new BeanPropertyBindingResult(eventDto, "eventDto");
+    validator.validate(eventDto, errors);
+    if (!errors.hasErrors()) {
+      eventValidator.validate(eventDto, errors);
+    }
+    return errors.getAllErrors().stream().map(ObjectError::getCode).collect(Collectors.toList());
+  }
+
+  private EventDto.EventDtoBuilder validEvent() {
+    return EventDto.builder()
+            .name("Spring")
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역");
+  }
+}
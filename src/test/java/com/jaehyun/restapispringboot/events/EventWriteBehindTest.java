@@ -0,0 +1,254 @@
+package com.jaehyun.restapispringboot.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(properties = {
+        "events.write-behind.enabled=true",
+        "events.write-behind.directory=target/write-behind/${random.uuid}",
+        "events.write-behind.drain-interval=3600000",
+        "events.write-behind.batch-size=2",
+        "events.write-behind.max-batches-per-drain=2"
+})
+@AutoConfigureMockMvc
+public class EventWriteBehindTest {
+
+  @Autowired
+  MockMvc mockMvc;
+  @Autowired
+  ObjectMapper objectMapper;
+  @Autowired
+  EventWriteBehind writeBehind;
+  @Autowired
+  EventQueue eventQueue;
+  @Autowired
+  EventRepository eventRepository;
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+  @Autowired
+  EventMapper eventMapper;
+  @Autowired
+  EventSearch eventSearch;
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  @Before
+  public void setUp() {
+    while (!eventQueue.isEmpty()) {
+      writeBehind.drain();
+    }
+  }
+
+  @Test
+  @TestDescription("write-behind 모드에서는 202 와 Location 을 바로 응답하고 drain 후에 조회할 수 있다")
+  public void createEvent_Accepted() throws Exception {
+    String location = mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(generateEventDto("write behind"))))
+            .andDo(print())
+            .andExpect(status().isAccepted())
+            .andExpect(header().exists(HttpHeaders.LOCATION))
+            .andExpect(jsonPath("state").value("QUEUED"))
+            .andExpect(jsonPath("_links.self.href").exists())
+            .andExpect(jsonPath("_links.event.href").exists())
+            .andReturn().getResponse().getHeader(HttpHeaders.LOCATION);
+
+    mockMvc.perform(get(location)).andExpect(status().isNotFound());
+    mockMvc.perform(get(location + "/status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("state").value("QUEUED"));
+
+    assertThat(writeBehind.drain()).isEqualTo(1);
+
+    mockMvc.perform(get(location + "/status"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("state").value("PERSISTED"));
+    mockMvc.perform(get(location))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("name").value("write behind"))
+            .andExpect(jsonPath("free").value(false))
+            .andExpect(jsonPath("offline").value(true));
+    mockMvc.perform(get("/api/events/search").param("q", "behind"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("page.totalElements").value(1));
+  }
+
+  @Test
+  @TestDescription("이미 DB 에 있는 id 는 다시 insert 하지 않는다")
+  public void drain_SkipsExistingIds() {
+    Integer id = writeBehind.enqueue(generateEventDto("replayed")).get();
+    jdbcTemplate.update("insert into event (id, name, base_price, max_price, limit_of_enrollment, "
+            + "number_of_enrollments, offline, free, event_status, version) "
+            + "values (?, 'already written', 0, 0, 0, 0, false, true, 'DRAFT', 0)", id);
+
+    assertThat(writeBehind.drain()).isZero();
+    assertThat(eventRepository.findById(id).get().getName()).isEqualTo("already written");
+    assertThat(writeBehind.status(id)).contains(EventWriteStatus.State.PERSISTED);
+  }
+
+  @Test
+  @TestDescription("컬럼보다 긴 이름으로 이벤트를 만들면 큐에 넣지 않고 400")
+  public void createEvent_NameTooLong() throws Exception {
+    mockMvc.perform(post("/api/events")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(MediaTypes.HAL_JSON)
+                    .content(objectMapper.writeValueAsString(generateEventDto("a".repeat(300)))))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].field").value("name"));
+    assertThat(eventQueue.isEmpty()).isTrue();
+  }
+
+  @Test
+  @TestDescription("insert 할 수 없는 이벤트는 dead-letter 로 옮기고 FAILED 로 알려주며 뒤의 이벤트는 계속 반영한다")
+  public void drain_MovesFailedRecordToDeadLetter() throws Exception {
+    int deadLetters = eventQueue.readDeadLetters().size();
+    Integer before = writeBehind.enqueue(generateEventDto("before")).get();
+    // API 검증을 거치지 않고 큐에 들어온 varchar(255) 를 넘는 이름
+    Integer tooLong = writeBehind.enqueue(generateEventDto("a".repeat(300))).get();
+    Integer after = writeBehind.enqueue(generateEventDto("after")).get();
+
+    assertThat(writeBehind.drain()).isEqualTo(2);
+
+    assertThat(eventQueue.isEmpty()).isTrue();
+    assertThat(writeBehind.status(before)).contains(EventWriteStatus.State.PERSISTED);
+    assertThat(writeBehind.status(after)).contains(EventWriteStatus.State.PERSISTED);
+    assertThat(writeBehind.status(tooLong)).contains(EventWriteStatus.State.FAILED);
+    assertThat(eventQueue.readDeadLetters()).hasSize(deadLetters + 1);
+    mockMvc.perform(get("/api/events/{id}/status", tooLong))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("state").value("FAILED"));
+  }
+
+  @Test
+  @TestDescription("모르는 필드가 있는 이전 배포의 기록은 무시하고 반영하고 읽을 수 없는 기록은 dead-letter 로 옮긴다")
+  public void drain_MovesUnreadableRecordToDeadLetter() throws Exception {
+    int deadLetters = eventQueue.readDeadLetters().size();
+    Integer renamed = 910101;
+    Integer incomplete = 910102;
+    ObjectNode withUnknownField = objectMapper.createObjectNode();
+    withUnknownField.put("id", renamed);
+    withUnknownField.set("event", objectMapper.valueToTree(generateEventDto("renamed field")));
+    withUnknownField.with("event").put("removedField", "x");
+    eventQueue.append(objectMapper.writeValueAsBytes(withUnknownField));
+    // 필수 값인 날짜가 빠져서 행으로 만들 수 없는 기록
+    eventQueue.append(("{\"id\":" + incomplete + ",\"event\":{\"name\":\"incomplete\"}}").getBytes(StandardCharsets.UTF_8));
+    eventQueue.append("not json".getBytes(StandardCharsets.UTF_8));
+    Integer after = writeBehind.enqueue(generateEventDto("after")).get();
+
+    assertThat(writeBehind.drain()).isEqualTo(2);
+
+    assertThat(eventQueue.isEmpty()).isTrue();
+    assertThat(eventRepository.findById(renamed).get().getName()).isEqualTo("renamed field");
+    assertThat(writeBehind.status(after)).contains(EventWriteStatus.State.PERSISTED);
+    assertThat(writeBehind.status(incomplete)).contains(EventWriteStatus.State.FAILED);
+    assertThat(eventQueue.readDeadLetters()).hasSize(deadLetters + 2);
+  }
+
+  @Test
+  @TestDescription("batch 도중에 다른 DB 오류가 나서 다시 시도해도 dead-letter 는 한 번만 쓴다")
+  public void drain_RetryDoesNotDuplicateDeadLetter() throws Exception {
+    AtomicBoolean outage = new AtomicBoolean();
+    AtomicInteger transactions = new AtomicInteger();
+    TransactionTemplate flaky = new TransactionTemplate(transactionManager) {
+      @Override
+      public <T> T execute(TransactionCallback<T> action) {
+        // batch insert, 긴 이름 한 건 다음의 세 번째 트랜잭션에서 DB 가 잠깐 끊긴다
+        if (transactions.incrementAndGet() == 3 && outage.compareAndSet(false, true)) {
+          throw new CannotCreateTransactionException("simulated outage");
+        }
+        return super.execute(action);
+      }
+    };
+    EventQueue queue = new EventQueue(Files.createTempDirectory(Path.of("target"), "write-behind-retry"), 64 * 1024, false);
+    queue.open();
+    try {
+      EventWriteBehind retrying = new EventWriteBehind(queue, new EventIdAllocator(entityManagerFactory, 10),
+              eventMapper, eventRepository, eventSearch, jdbcTemplate, flaky, entityManagerFactory, objectMapper, 2, 1);
+      Integer tooLong = retrying.enqueue(generateEventDto("a".repeat(300))).get();
+      Integer after = retrying.enqueue(generateEventDto("after outage")).get();
+
+      assertThatThrownBy(retrying::drain).isInstanceOf(CannotCreateTransactionException.class);
+      assertThat(queue.readDeadLetters()).isEmpty();
+      assertThat(retrying.status(tooLong)).contains(EventWriteStatus.State.QUEUED);
+
+      assertThat(retrying.drain()).isEqualTo(1);
+      assertThat(queue.isEmpty()).isTrue();
+      assertThat(queue.readDeadLetters()).hasSize(1);
+      assertThat(retrying.status(tooLong)).contains(EventWriteStatus.State.FAILED);
+      assertThat(retrying.status(after)).contains(EventWriteStatus.State.PERSISTED);
+    } finally {
+      queue.close();
+    }
+  }
+
+  @Test
+  @TestDescription("drain 한 번에 max-batches-per-drain 개의 batch 까지만 반영한다")
+  public void drain_IsBounded() {
+    for (int i = 0; i < 5; i++) {
+      writeBehind.enqueue(generateEventDto("bounded " + i));
+    }
+
+    assertThat(writeBehind.drain()).isEqualTo(4);
+    assertThat(eventQueue.isEmpty()).isFalse();
+    assertThat(writeBehind.drain()).isEqualTo(1);
+    assertThat(eventQueue.isEmpty()).isTrue();
+  }
+
+  @Test
+  @TestDescription("없는 id 의 상태를 조회하면 404")
+  public void getWriteStatus_NotFound() throws Exception {
+    mockMvc.perform(get("/api/events/{id}/status", 1183))
+            .andExpect(status().isNotFound());
+  }
+
+  private EventDto generateEventDto(String name) {
+    return EventDto.builder()
+            .name(name)
+            .description("REST API Development with Spring Boot")
+            .beginEnrollmentDateTime(LocalDateTime.of(2018, 11, 23, 14, 21))
+            .closeEnrollmentDateTime(LocalDateTime.of(2018, 11, 24, 14, 21))
+            .beginEventDateTime(LocalDateTime.of(2018, 11, 25, 14, 21))
+            .endEventDateTime(LocalDateTime.of(2018, 11, 26, 14, 21))
+            .basePrice(100)
+            .maxPrice(200)
+            .limitOfEnrollment(100)
+            .location("강남역")
+            .build();
+  }
+}
@@ -0,0 +1,71 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class InMemoryIdempotencyStoreTest {
+
+  private static final Duration WAIT = Duration.ofSeconds(5);
+
+  private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(new IdempotencyProperties());
+
+  @Test
+  @TestDescription("처리 중인 key 로 들어온 요청은 원래 요청이 끝날 때까지 기다렸다가 같은 응답을 받는다")
+  public void claimOrAwait_WaitsForInFlight() throws Exception {
+    assertThat(store.claimOrAwait("key", "fp", WAIT)).isEmpty();
+
+    CompletableFuture<Optional<IdempotentResponse>> duplicate =
+            CompletableFuture.supplyAsync(() -> claim("key"));
+    Thread.sleep(100);
+    assertThat(duplicate).isNotDone();
+
+    IdempotentResponse response = response();
+    store.complete("key", response);
+
+    assertThat(duplicate.get(1, TimeUnit.SECONDS)).containsSame(response);
+  }
+
+  @Test
+  @TestDescription("원래 요청이 실패하면 기다리던 요청이 key 를 다시 선점한다")
+  public void claimOrAwait_AfterRelease() throws Exception {
+    assertThat(store.claimOrAwait("key", "fp", WAIT)).isEmpty();
+
+    CompletableFuture<Optional<IdempotentResponse>> duplicate =
+            CompletableFuture.supplyAsync(() -> claim("key"));
+    Thread.sleep(100);
+    store.release("key");
+
+    assertThat(duplicate.get(1, TimeUnit.SECONDS)).isEmpty();
+  }
+
+  @Test
+  @TestDescription("원래 요청이 wait 시간 안에 끝나지 않으면 TimeoutException")
+  public void claimOrAwait_Timeout() throws Exception {
+    assertThat(store.claimOrAwait("key", "fp", WAIT)).isEmpty();
+
+    assertThatThrownBy(() -> store.claimOrAwait("key", "fp", Duration.ofMillis(50)))
+            .isInstanceOf(TimeoutException.class);
+  }
+
+  private Optional<IdempotentResponse> claim(String key) {
+    try {
+      return store.claimOrAwait(key, "fp", WAIT);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private IdempotentResponse response() {
+    return new IdempotentResponse("fp", 201, "application/hal+json", "http://localhost/api/events/1", "\"0\"",
+            "{}".getBytes());
+  }
+}
@@ -0,0 +1,84 @@
+package com.jaehyun.restapispringboot.idempotency;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@RunWith(SpringRunner.class)
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JdbcIdempotencyStoreTest {
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  JdbcIdempotencyStore store;
+
+  @Before
+  public void setUp() {
+    store = new JdbcIdempotencyStore(jdbcTemplate, new IdempotencyProperties());
+    store.createTable();
+    jdbcTemplate.update("delete from idempotency_key");
+  }
+
+  @Test
+  @TestDescription("완료된 key 는 저장된 응답을 돌려준다")
+  public void claimOrAwait_Completed() throws Exception {
+    assertThat(store.claimOrAwait("key", "fp", Duration.ofSeconds(1))).isEmpty();
+    store.complete("key", new IdempotentResponse("fp", 201, "application/hal+json",
+            "http://localhost/api/events/1", "\"0\"", "{\"id\":1}".getBytes()));
+
+    Optional<IdempotentResponse> stored = store.claimOrAwait("key", "fp", Duration.ofSeconds(1));
+
+    assertThat(stored).isPresent();
+    assertThat(stored.get().getStatus()).isEqualTo(201);
+    assertThat(stored.get().getLocation()).isEqualTo("http://localhost/api/events/1");
+    assertThat(stored.get().getETag()).isEqualTo("\"0\"");
+    assertThat(stored.get().getBody()).isEqualTo("{\"id\":1}".getBytes());
+  }
+
+  @Test
+  @TestDescription("처리 중인 key 는 wait 시간이 지나면 TimeoutException, release 후에는 다시 선점할 수 있다")
+  public void claimOrAwait_InFlight() throws Exception {
+    assertThat(store.claimOrAwait("key", "fp", Duration.ofSeconds(1))).isEmpty();
+
+    assertThatThrownBy(() -> store.claimOrAwait("key", "fp", Duration.ofMillis(100)))
+            .isInstanceOf(TimeoutException.class);
+
+    store.release("key");
+    assertThat(store.claimOrAwait("key", "fp", Duration.ofSeconds(1))).isEmpty();
+  }
+
+  @Test
+  @TestDescription("선점한 요청이 lease 안에 끝나지 않으면 기다리던 요청이 바로 넘겨받는 테스트")
+  public void claimOrAwait_LeaseExpired() throws Exception {
+    // 선점한 인스턴스가 죽은 것처럼 lease 보다 오래된 미완료 행을 남긴다
+    Timestamp claimedAt = Timestamp.from(Instant.now().minus(Duration.ofMinutes(1)));
+    jdbcTemplate.update("insert into idempotency_key (idempotency_key, fingerprint, created_at, claimed_at) "
+            + "values (?, ?, ?, ?)", "key", "fp", claimedAt, claimedAt);
+
+    long started = System.nanoTime();
+    assertThat(store.claimOrAwait("key", "fp", Duration.ofSeconds(10))).isEmpty();
+    assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+
+    // 넘겨받은 뒤에는 lease 가 새로 시작되므로 다른 재시도는 기다린다
+    assertThatThrownBy(() -> store.claimOrAwait("key", "fp", Duration.ofMillis(100)))
+            .isInstanceOf(TimeoutException.class);
+  }
+}
@@ -0,0 +1,122 @@
+package com.jaehyun.restapispringboot.ratelimit;
+
+import com.jaehyun.restapispringboot.common.TestDescription;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimitFilterTest {
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Test
+  @TestDescription("capacity 만큼은 한 번에 허용하고 그 다음은 refill 간격만큼 기다려야 한다")
+  public void tokenBucket_BurstThenRefill() {
+    TokenBucket bucket = new TokenBucket(3, 10);
+    long now = 1_000_000_000L;
+
+    assertThat(bucket.tryAcquire(now)).isZero();
+    assertThat(bucket.tryAcquire(now)).isZero();
+    assertThat(bucket.tryAcquire(now)).isZero();
+    assertThat(bucket.tryAcquire(now)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+
+    assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100))).isZero();
+    assertThat(bucket.tryAcquire(now + TimeUnit.MILLISECONDS.toNanos(100))).isPositive();
+  }
+
+  @Test
+  @TestDescription("write budget 을 넘으면 429 와 Retry-After 를 응답하고 다른 API key 와 read 요청은 그대로 통과한다")
+  public void filter_TooManyRequests() throws Exception {
+    RateLimitFilter filter = filter(null);
+
+    assertThat(perform(filter, "POST", "partner-a").getStatus()).isEqualTo(200);
+    assertThat(perform(filter, "POST", "partner-a").getStatus()).isEqualTo(200);
+    MockHttpServletResponse rejected = perform(filter, "POST", "partner-a");
+    assertThat(rejected.getStatus()).isEqualTo(429);
+    assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+    assertThat(perform(filter, "POST", "partner-b").getStatus()).isEqualTo(200);
+    assertThat(perform(filter, "GET", "partner-a").getStatus()).isEqualTo(200);
+    assertThat(meterRegistry.get(RateLimitFilter.REQUESTS).tag("budget", "write").tag("outcome", "admitted")
+            .counter().count()).isEqualTo(3);
+    assertThat(meterRegistry.get(RateLimitFilter.REQUESTS).tag("budget", "write").tag("outcome", "rejected")
+            .counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  @TestDescription("등록되지 않은 X-API-Key 는 IP 로 구분하므로 key 를 바꿔가며 보내도 같은 budget 을 쓴다")
+  public void filter_UnknownApiKeysShareIpBudget() throws Exception {
+    RateLimitFilter filter = filter(null);
+
+    assertThat(perform(filter, "POST", "random-1").getStatus()).isEqualTo(200);
+    assertThat(perform(filter, "POST", "random-2").getStatus()).isEqualTo(200);
+    assertThat(perform(filter, "POST", "random-3").getStatus()).isEqualTo(429);
+    assertThat(perform(filter, "POST", "partner-a").getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  @TestDescription("커넥션 풀 대기 시간이 기준을 넘으면 503 으로 덜어내고 대기가 사라지면 다시 받는다")
+  public void filter_ShedsWhenPoolIsSlow() throws Exception {
+    PoolWaitMonitor monitor = new PoolWaitMonitor(meterRegistry, Duration.ofMillis(200));
+    RateLimitFilter filter = filter(monitor);
+    Timer acquire = meterRegistry.timer(PoolWaitMonitor.ACQUIRE_TIMER, "pool", "test");
+
+    acquire.record(Duration.ofMillis(10));
+    monitor.sample();
+    assertThat(perform(filter, "GET", "partner-a").getStatus()).isEqualTo(200);
+
+    acquire.record(Duration.ofMillis(900));
+    acquire.record(Duration.ofMillis(700));
+    monitor.sample();
+    MockHttpServletResponse shed = perform(filter, "GET", "partner-a");
+    assertThat(shed.getStatus()).isEqualTo(503);
+    assertThat(shed.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("2");
+
+    // 이번 주기에 획득 기록도, 기다리는 스레드도 없다
+    monitor.sample();
+    assertThat(perform(filter, "GET", "partner-a").getStatus()).isEqualTo(200);
+    assertThat(meterRegistry.get(RateLimitFilter.REQUESTS).tag("budget", "read").tag("outcome", "shed")
+            .counter().count()).isEqualTo(1);
+  }
+
+  @Test
+  @TestDescription("idle-timeout 동안 요청이 없던 클라이언트의 bucket 은 버린다")
+  public void rateLimiter_EvictsIdleBuckets() throws Exception {
+    RateLimiter limiter = new RateLimiter(new RateLimitProperties.Budget(1, 1), Duration.ofMillis(50), 1000);
+    for (int i = 0; i < 100; i++) {
+      limiter.tryAcquire("ip:10.0.0." + i);
+    }
+    assertThat(limiter.estimatedSize()).isEqualTo(100);
+
+    Thread.sleep(100);
+    assertThat(limiter.estimatedSize()).isZero();
+  }
+
+  private RateLimitFilter filter(PoolWaitMonitor monitor) {
+    RateLimitProperties.Shedding shedding = new RateLimitProperties.Shedding();
+    shedding.setRetryAfter(Duration.ofSeconds(2));
+    return new RateLimitFilter(
+            new RateLimiter(new RateLimitProperties.Budget(10, 1), Duration.ofMinutes(1), 1000),
+            new RateLimiter(new RateLimitProperties.Budget(2, 1), Duration.ofMinutes(1), 1000),
+            monitor, new ClientKeyResolver(Set.of("partner-a", "partner-b")), shedding, meterRegistry);
+  }
+
+  private MockHttpServletResponse perform(RateLimitFilter filter, String method, String apiKey) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, "/api/events");
+    request.addHeader(RateLimitFilter.API_KEY, apiKey);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+}